@@ -16,4 +16,6 @@ public final class IntegresqlConstants {
     public static final String CONFIG_API_VERSION = "quarkus.integresql.api-version";
     public static final String CONFIG_PORT = "quarkus.integresql.dev-services.db.port";
     public static final String CONFIG_HOST = "quarkus.integresql.dev-services.db.host";
+    public static final String CONFIG_OVERRIDE_PORT = "quarkus.integresql.override-port";
+    public static final String CONFIG_OVERRIDE_HOST = "quarkus.integresql.override-host";
 }
\ No newline at end of file
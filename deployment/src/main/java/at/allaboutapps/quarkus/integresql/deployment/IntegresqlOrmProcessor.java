@@ -0,0 +1,88 @@
+package at.allaboutapps.quarkus.integresql.deployment;
+
+import at.allaboutapps.quarkus.integresql.deployment.config.IntegresqlBuildTimeConfig;
+import at.allaboutapps.quarkus.integresql.runtime.orm.IntegresqlOrmCacheReset;
+import at.allaboutapps.quarkus.integresql.runtime.orm.IntegresqlTenantConnectionResolver;
+import at.allaboutapps.quarkus.integresql.runtime.orm.IntegresqlTenantResolver;
+import at.allaboutapps.quarkus.integresql.runtime.orm.TransactionalPoolWarmup;
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.annotations.BuildProducer;
+import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.BuildSteps;
+import io.quarkus.deployment.builditem.ConfigurationBuildItem;
+import io.quarkus.deployment.builditem.RunTimeConfigurationDefaultBuildItem;
+import io.smallrye.config.ConfigValue;
+import org.jboss.logging.Logger;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Quarkus build-time processor for the Hibernate ORM integration. Kept apart
+ * from {@link QuarkusIntegresqlProcessor}, so it only runs when the optional
+ * Hibernate ORM extension is present.
+ */
+@BuildSteps(onlyIf = IntegresqlOrmProcessor.HibernateOrmPresent.class)
+public class IntegresqlOrmProcessor {
+
+    private static final Logger log = Logger.getLogger(IntegresqlOrmProcessor.class);
+
+    private static final String MULTITENANT = "quarkus.hibernate-orm.multitenant";
+
+    /**
+     * Build step pointing the default Hibernate ORM persistence unit at the
+     * current lease, if enabled. Uses database multitenancy, so the metadata is
+     * built once and only the connections switch databases.
+     * <p>
+     * Schema generation is turned off by default: it would only ever run
+     * against the default datasource, while the schema of leased databases
+     * comes from their template.
+     */
+    @BuildStep
+    void registerOrmBeans(
+            IntegresqlBuildTimeConfig buildTimeConfig,
+            ConfigurationBuildItem configuration,
+            Capabilities capabilities,
+            BuildProducer<AdditionalBeanBuildItem> additionalBeans,
+            BuildProducer<RunTimeConfigurationDefaultBuildItem> runTimeDefaults) {
+        if (!buildTimeConfig.orm().enabled()) {
+            return;
+        }
+        if (!capabilities.isPresent(Capability.HIBERNATE_ORM)) {
+            log.warn("quarkus.integresql.orm.enabled is set, but the quarkus-hibernate-orm extension is missing.");
+            return;
+        }
+        // Build-time property of the Hibernate ORM extension, as resolved for this build
+        ConfigValue multitenantValue = configuration.getReadResult().getAllBuildTimeValues().get(MULTITENANT);
+        String multitenant = multitenantValue != null && multitenantValue.getValue() != null
+                ? multitenantValue.getValue()
+                : "NONE";
+        if (!"DATABASE".equalsIgnoreCase(multitenant)) {
+            log.warnf("quarkus.integresql.orm.enabled requires quarkus.hibernate-orm.multitenant=DATABASE (is %s),"
+                    + " the persistence unit will not follow the current lease.", multitenant);
+            return;
+        }
+
+        additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                .addBeanClasses(IntegresqlTenantResolver.class, IntegresqlTenantConnectionResolver.class,
+                        IntegresqlOrmCacheReset.class, TransactionalPoolWarmup.class)
+                .setUnremovable()
+                .build());
+        runTimeDefaults.produce(new RunTimeConfigurationDefaultBuildItem(
+                "quarkus.hibernate-orm.database.generation", "none"));
+    }
+
+    /**
+     * Whether the Hibernate ORM extension is on the classpath of the
+     * application.
+     */
+    static class HibernateOrmPresent implements BooleanSupplier {
+
+        @Override
+        public boolean getAsBoolean() {
+            return QuarkusClassLoader.isClassPresentAtRuntime("io.quarkus.hibernate.orm.runtime.HibernateOrmRecorder");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package at.allaboutapps.quarkus.integresql.deployment;
+
+import at.allaboutapps.quarkus.integresql.runtime.reactive.IntegresqlPool;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.IntegresqlReactiveRecorder;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.LeasePools;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.ReactivePoolWarmup;
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.annotations.BuildProducer;
+import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.BuildSteps;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
+import io.vertx.sqlclient.Pool;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Quarkus build-time processor for the reactive PostgreSQL client
+ * integration. Kept apart from {@link QuarkusIntegresqlProcessor}, as its
+ * recorder needs the optional Vert.x SQL client classes.
+ */
+@BuildSteps(onlyIf = IntegresqlReactiveProcessor.ReactivePgClientPresent.class)
+public class IntegresqlReactiveProcessor {
+
+    /**
+     * Build step producing the reactive {@link Pool} bean qualified with
+     * {@link IntegresqlPool}, which follows the current lease.
+     */
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void configureReactivePoolBean(
+            Capabilities capabilities,
+            IntegresqlReactiveRecorder recorder,
+            BuildProducer<AdditionalBeanBuildItem> additionalBeans,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+        if (!capabilities.isPresent(Capability.REACTIVE_PG_CLIENT)) {
+            return;
+        }
+
+        // The qualifier is added too, so it is indexed for injection points
+        additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                .addBeanClasses(LeasePools.class, ReactivePoolWarmup.class, IntegresqlPool.class)
+                .setUnremovable()
+                .build());
+        syntheticBeans.produce(SyntheticBeanBuildItem.configure(Pool.class)
+                .scope(ApplicationScoped.class)
+                .addQualifier(IntegresqlPool.class)
+                .supplier(recorder.followingPool())
+                .setRuntimeInit()
+                .unremovable()
+                .done());
+    }
+
+    /**
+     * Whether the reactive PostgreSQL client is on the classpath of the
+     * application.
+     */
+    static class ReactivePgClientPresent implements BooleanSupplier {
+
+        @Override
+        public boolean getAsBoolean() {
+            return QuarkusClassLoader.isClassPresentAtRuntime("io.vertx.pgclient.PgBuilder");
+        }
+    }
+}
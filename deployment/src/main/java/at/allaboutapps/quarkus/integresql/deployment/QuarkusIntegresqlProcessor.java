@@ -7,15 +7,22 @@ import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
 
 // --- Imports from Runtime Module ---
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlAsyncClient;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlExecutor;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
 import at.allaboutapps.quarkus.integresql.runtime.IntegresqlRecorder;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseDataSources;
 
 // --- Standard Quarkus Deployment Imports ---
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.ExecutionTime;
 import io.quarkus.deployment.annotations.Record;
 import io.quarkus.deployment.builditem.DevServicesResultBuildItem;
 import io.quarkus.deployment.builditem.DockerStatusBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
 import io.quarkus.deployment.console.ConsoleInstalledBuildItem;
 import io.quarkus.deployment.console.StartupLogCompressor;
 import io.quarkus.deployment.dev.devservices.DevServicesConfig;
@@ -64,8 +71,15 @@ public class QuarkusIntegresqlProcessor {
             BuildProducer<DevServicesResultBuildItem> devServicesProducer,
             Optional<ConsoleInstalledBuildItem> consoleInstalledBuildItem,
             LoggingSetupBuildItem loggingSetupBuildItem) {
-        if (integresqlDevService != null || !buildTimeConfig.devServices().enabled()) {
-            log.debug("IntegreSQL Dev Service not starting: disabled or already running.");
+        if (!buildTimeConfig.devServices().enabled()) {
+            log.debug("IntegreSQL Dev Service not starting: disabled.");
+            return;
+        }
+        if (integresqlDevService != null) {
+            // Restarts (dev mode, test profiles) rebuild the application, which
+            // needs the configuration of the running containers again
+            log.debug("IntegreSQL Dev Service already running, reusing it.");
+            devServicesProducer.produce(integresqlDevService.toBuildItem());
             return;
         }
         if (!dockerStatusBuildItem.isContainerRuntimeAvailable()) {
@@ -144,4 +158,38 @@ public class QuarkusIntegresqlProcessor {
                 .setRuntimeInit() // Bean instantiated at runtime
                 .done());
     }
-}
\ No newline at end of file
+
+    /**
+     * Build step to produce the executor CDI bean the blocking client calls
+     * run on.
+     */
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    public void configureExecutorBean(
+            IntegresqlRecorder recorder,
+            IntegresqlRuntimeConfig runtimeConfig,
+            ShutdownContextBuildItem shutdownContext,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        syntheticBeans.produce(SyntheticBeanBuildItem.configure(IntegresqlExecutor.class)
+                .scope(ApplicationScoped.class)
+                .runtimeValue(recorder.createExecutor(runtimeConfig, shutdownContext))
+                .setRuntimeInit()
+                .unremovable()
+                .done());
+    }
+
+    /**
+     * Build step registering the beans built on top of the client: the
+     * non-blocking client, the template state cache and the lease manager that
+     * hands out {@link at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease}s.
+     */
+    @BuildStep
+    AdditionalBeanBuildItem registerBeans() {
+        return AdditionalBeanBuildItem.builder()
+                .addBeanClasses(IntegresqlAsyncClient.class, IntegresqlTemplates.class, LeaseDataSources.class,
+                        IntegresqlLeases.class)
+                .setUnremovable()
+                .build();
+    }
+}
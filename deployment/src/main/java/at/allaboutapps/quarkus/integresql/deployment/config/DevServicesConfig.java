@@ -43,6 +43,32 @@ public interface DevServicesConfig {
     @WithDefault("false")
     boolean shared();
 
+    /**
+     * How the containers are reached from the application.
+     * {@code host} and {@code container-address} avoid the latency of the
+     * Docker port proxy on every HTTP and JDBC round-trip, but only work with
+     * a Linux Docker host. In {@code host} mode both containers bind fixed
+     * ports on the host ({@code port}, 5000 by default, and {@code db.port},
+     * 5432 by default), which must be free; startup fails otherwise.
+     * This is set to "mapped" by default.
+     *
+     * @return the network mode
+     */
+    @WithDefault("mapped")
+    NetworkMode networkMode();
+
+    /**
+     * Whether stopping the dev service returns right away and leaves stopping
+     * the containers to a background thread. Containers not stopped when the
+     * JVM exits are removed by the Testcontainers reaper (Ryuk), so the build
+     * does not wait for them.
+     * This is set to false by default.
+     *
+     * @return true if the containers are stopped in the background
+     */
+    @WithDefault("false")
+    boolean detachedTeardown();
+
     /**
      * The name of the service to use for the dev service.
      * This is set to "integresql" by default.
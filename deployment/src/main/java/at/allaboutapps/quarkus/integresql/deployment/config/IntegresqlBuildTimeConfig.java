@@ -15,4 +15,11 @@ public interface IntegresqlBuildTimeConfig {
      * @return the dev services configuration
      */
     DevServicesConfig devServices();
+
+    /**
+     * The configuration for the Hibernate ORM integration.
+     *
+     * @return the Hibernate ORM configuration
+     */
+    OrmConfig orm();
 }
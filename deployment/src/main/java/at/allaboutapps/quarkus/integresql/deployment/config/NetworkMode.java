@@ -0,0 +1,22 @@
+package at.allaboutapps.quarkus.integresql.deployment.config;
+
+/**
+ * How the Dev Service containers are reached from the application.
+ */
+public enum NetworkMode {
+    /**
+     * Containers run on their own Docker network and are reached through the
+     * ports Testcontainers maps on the host (via docker-proxy).
+     */
+    MAPPED,
+    /**
+     * Containers share the network stack of the host (Linux only), so
+     * PostgreSQL and IntegreSQL are reached on localhost without any proxy.
+     */
+    HOST,
+    /**
+     * Containers run on their own Docker network and are reached directly on
+     * their container IP addresses (Linux only), bypassing docker-proxy.
+     */
+    CONTAINER_ADDRESS
+}
@@ -0,0 +1,19 @@
+package at.allaboutapps.quarkus.integresql.deployment.config;
+
+import io.smallrye.config.WithDefault;
+
+public interface OrmConfig {
+
+    /**
+     * Whether the default Hibernate ORM persistence unit should follow the
+     * current IntegreSQL lease. Requires the {@code quarkus-hibernate-orm}
+     * extension and {@code quarkus.hibernate-orm.multitenant=DATABASE}.
+     * Schema generation then defaults to {@code none}, as leased databases
+     * get their schema from the template.
+     * This is set to false by default.
+     *
+     * @return true if the persistence unit follows the current lease
+     */
+    @WithDefault("false")
+    boolean enabled();
+}
@@ -2,10 +2,10 @@ package at.allaboutapps.quarkus.integresql.deployment.container;
 
 import io.quarkus.devservices.common.ConfigureUtil;
 import org.testcontainers.containers.GenericContainer;
-import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.utility.DockerImageName;
 
 import java.time.Duration; // Import Duration
+import java.util.function.Supplier;
 
 public class IntegreSQLContainer extends GenericContainer<IntegreSQLContainer> {
 
@@ -17,11 +17,14 @@ public class IntegreSQLContainer extends GenericContainer<IntegreSQLContainer> {
     private final String serviceName; // Used for labeling
     private final Integer fixedExposedPortOnHost; // The port on the host machine
     private String resolvedHostname; // Hostname within the shared network
+    private boolean hostNetwork; // Run in the network stack of the host, without port mapping
 
-    // --- UPDATED REGEX based on provided logs ---
-    // This regex looks for the specific JSON message indicating the server has started.
-    // It accounts for quotes and escapes special characters for Java and regex.
-    private static final String INTEGRESQL_READY_LOG_REGEX = ".*\"message\":\"⇨ http server started on \\[::\\]:5000\\\\n\".*";
+    // Readiness probe of the PostgreSQL server used by IntegreSQL (optional)
+    private Supplier<String> databaseProbeJdbcUrl;
+    private String databaseProbeUsername;
+    private String databaseProbePassword;
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
 
     public IntegreSQLContainer(Integer fixedExposedPortOnHost, boolean useSharedNetwork, String serviceName) {
         super(IMAGE);
@@ -36,34 +39,83 @@ public class IntegreSQLContainer extends GenericContainer<IntegreSQLContainer> {
         this(null, useSharedNetwork, serviceName);
     }
 
+    /**
+     * Runs the container in the network stack of the host (Linux only).
+     * IntegreSQL then listens directly on the fixed host port (or 5000) and
+     * is reached without going through docker-proxy.
+     */
+    public IntegreSQLContainer withHostNetwork(boolean hostNetwork) {
+        this.hostNetwork = hostNetwork;
+        return self();
+    }
+
+    public boolean isHostNetwork() {
+        return hostNetwork;
+    }
+
+    /**
+     * Makes the container only report ready once the given PostgreSQL server
+     * answers {@code SELECT 1}, in addition to the IntegreSQL API.
+     *
+     * @param jdbcUrl supplies the JDBC URL of the server as reachable from
+     *                this JVM, evaluated while waiting for the container
+     */
+    public IntegreSQLContainer withDatabaseReadinessProbe(Supplier<String> jdbcUrl, String username,
+            String password) {
+        this.databaseProbeJdbcUrl = jdbcUrl;
+        this.databaseProbeUsername = username;
+        this.databaseProbePassword = password;
+        return self();
+    }
+
     @Override
     protected void configure() {
         super.configure();
 
-        // Always expose the internal port so Testcontainers knows about it for mapping
-        // and for getMappedPort() to work.
-        if (this.fixedExposedPortOnHost != null) {
-            // If a fixed host port is requested, bind the internal port to it.
-            addFixedExposedPort(this.fixedExposedPortOnHost, INTEGRESQL_PORT);
+        if (this.hostNetwork) {
+            // No port mapping or container networks in host mode, IntegreSQL
+            // binds the host port itself.
+            setNetworkMode("host");
+            withEnv("INTEGRESQL_PORT", String.valueOf(getPort()));
         } else {
-            // If no fixed host port, just expose the internal port for random mapping.
-            addExposedPort(INTEGRESQL_PORT);
+            // Always expose the internal port so Testcontainers knows about it for mapping
+            // and for getMappedPort() to work.
+            if (this.fixedExposedPortOnHost != null) {
+                // If a fixed host port is requested, bind the internal port to it.
+                addFixedExposedPort(this.fixedExposedPortOnHost, INTEGRESQL_PORT);
+            } else {
+                // If no fixed host port, just expose the internal port for random mapping.
+                addExposedPort(INTEGRESQL_PORT);
+            }
+
+            // Configure network aspects
+            if (this.useSharedNetwork) {
+                // ConfigureUtil.configureSharedNetwork sets up the container to join
+                // Quarkus's shared Docker network and assigns it a predictable hostname.
+                // The 'serviceName' (e.g., "integresql") is often used as part of this hostname.
+                this.resolvedHostname = ConfigureUtil.configureSharedNetwork(this, this.serviceName);
+            }
+            // If not using shared network, Testcontainers will use its default network behavior.
         }
 
-        // Configure network aspects
-        if (this.useSharedNetwork) {
-            // ConfigureUtil.configureSharedNetwork sets up the container to join
-            // Quarkus's shared Docker network and assigns it a predictable hostname.
-            // The 'serviceName' (e.g., "integresql") is often used as part of this hostname.
-            this.resolvedHostname = ConfigureUtil.configureSharedNetwork(this, this.serviceName);
+        // Set the wait strategy after ports are configured. Actively probing the
+        // API (and PostgreSQL) reports ready as soon as the manager accepts calls,
+        // a log line only tells the HTTP server is listening.
+        IntegreSQLReadinessWaitStrategy readiness = new IntegreSQLReadinessWaitStrategy(this::getProbeBaseUrl);
+        if (this.databaseProbeJdbcUrl != null) {
+            readiness.withDatabase(this.databaseProbeJdbcUrl, this.databaseProbeUsername,
+                    this.databaseProbePassword);
         }
-        // If not using shared network, Testcontainers will use its default network behavior.
+        super.setWaitStrategy(readiness.withStartupTimeout(STARTUP_TIMEOUT));
+    }
 
-        // Set the wait strategy after ports are configured
-        super.setWaitStrategy(
-                Wait.forLogMessage(INTEGRESQL_READY_LOG_REGEX, 1)
-                        .withStartupTimeout(Duration.ofSeconds(120)) // Adjust timeout as needed
-        );
+    /**
+     * The API base URL as reachable from this JVM, regardless of the shared
+     * network hostname returned by {@link #getHost()}.
+     */
+    private String getProbeBaseUrl() {
+        String host = this.hostNetwork ? "localhost" : super.getHost();
+        return String.format("http://%s:%d/api", host, getPort());
     }
 
     /**
@@ -73,6 +125,9 @@ public class IntegreSQLContainer extends GenericContainer<IntegreSQLContainer> {
      */
     @Override
     public String getHost() {
+        if (this.hostNetwork) {
+            return "localhost";
+        }
         if (this.useSharedNetwork && this.resolvedHostname != null) {
             return this.resolvedHostname;
         }
@@ -82,9 +137,13 @@ public class IntegreSQLContainer extends GenericContainer<IntegreSQLContainer> {
     /**
      * Gets the mapped port on the host machine.
      * Relies on the port being exposed in configure().
+     * In host network mode this is the port IntegreSQL listens on directly.
      * @return The mapped port for the internal INTEGRESQL_PORT.
      */
     public int getPort() {
+        if (this.hostNetwork) {
+            return this.fixedExposedPortOnHost != null ? this.fixedExposedPortOnHost : INTEGRESQL_PORT;
+        }
         // This will get the host port corresponding to the internal INTEGRESQL_PORT
         return getMappedPort(INTEGRESQL_PORT);
     }
@@ -0,0 +1,145 @@
+package at.allaboutapps.quarkus.integresql.deployment.container;
+
+import org.jboss.logging.Logger;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Wait strategy that actively probes IntegreSQL and its PostgreSQL server
+ * instead of waiting for a log line.
+ * <p>
+ * The container is ready as soon as PostgreSQL answers {@code SELECT 1} and the
+ * IntegreSQL manager answers API calls (it responds with 503 until it is
+ * connected to PostgreSQL). Probes start at a short interval which grows up to
+ * {@link #MAX_INTERVAL} while the services are still starting, so startup is
+ * detected at the earliest possible moment without hammering the containers.
+ */
+public class IntegreSQLReadinessWaitStrategy extends AbstractWaitStrategy {
+
+    private static final Logger log = Logger.getLogger(IntegreSQLReadinessWaitStrategy.class);
+
+    private static final Duration INITIAL_INTERVAL = Duration.ofMillis(10);
+    private static final Duration MAX_INTERVAL = Duration.ofMillis(250);
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+    /** Hash that never exists, discarding it only checks the manager is ready. */
+    private static final String PROBE_TEMPLATE_HASH = "quarkus-integresql-readiness-probe";
+
+    private final Supplier<String> apiBaseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(PROBE_TIMEOUT)
+            .build();
+
+    private Supplier<String> jdbcUrl;
+    private String username;
+    private String password;
+
+    /**
+     * @param apiBaseUrl supplies the base URL of the IntegreSQL API (including
+     *                   {@code /api}) as reachable from this JVM, once the
+     *                   container is running
+     */
+    public IntegreSQLReadinessWaitStrategy(Supplier<String> apiBaseUrl) {
+        this.apiBaseUrl = apiBaseUrl;
+    }
+
+    /**
+     * Additionally waits for the PostgreSQL server to answer {@code SELECT 1}.
+     *
+     * @param jdbcUrl supplies the JDBC URL of the server as reachable from
+     *                this JVM
+     */
+    public IntegreSQLReadinessWaitStrategy withDatabase(Supplier<String> jdbcUrl, String username, String password) {
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        return this;
+    }
+
+    @Override
+    protected void waitUntilReady() {
+        long start = System.nanoTime();
+        long deadline = start + startupTimeout.toNanos();
+        Duration interval = INITIAL_INTERVAL;
+        boolean databaseReady = jdbcUrl == null;
+        boolean apiReady = false;
+
+        while (true) {
+            // The manager can only become ready once PostgreSQL is, probe that first
+            if (!databaseReady) {
+                databaseReady = probeDatabase();
+            }
+            if (databaseReady && !apiReady) {
+                apiReady = probeApi();
+            }
+            if (databaseReady && apiReady) {
+                log.debugf("IntegreSQL ready after %d ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new ContainerLaunchException(String.format(
+                        "IntegreSQL not ready after %d s (PostgreSQL ready: %s, IntegreSQL API ready: %s)",
+                        startupTimeout.getSeconds(), databaseReady, apiReady));
+            }
+
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ContainerLaunchException("Interrupted while waiting for IntegreSQL", e);
+            }
+            interval = interval.multipliedBy(2);
+            if (interval.compareTo(MAX_INTERVAL) > 0) {
+                interval = MAX_INTERVAL;
+            }
+        }
+    }
+
+    private boolean probeDatabase() {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("connectTimeout", String.valueOf(PROBE_TIMEOUT.getSeconds()));
+        properties.setProperty("socketTimeout", String.valueOf(PROBE_TIMEOUT.getSeconds()));
+        try (Connection connection = DriverManager.getConnection(jdbcUrl.get(), properties);
+                Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            return true;
+        } catch (SQLException e) {
+            log.tracef("PostgreSQL not ready yet: %s", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean probeApi() {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiBaseUrl.get() + "/v1/templates/" + PROBE_TEMPLATE_HASH))
+                .timeout(PROBE_TIMEOUT)
+                .DELETE()
+                .build();
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            // 503 means the manager is not ready, the expected answer is 404
+            log.tracef("IntegreSQL readiness probe answered %d", status);
+            return status < 500;
+        } catch (IOException e) {
+            log.tracef("IntegreSQL API not reachable yet: %s", e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for IntegreSQL", e);
+        }
+    }
+}
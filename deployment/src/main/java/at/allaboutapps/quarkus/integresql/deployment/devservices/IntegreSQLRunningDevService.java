@@ -2,7 +2,9 @@ package at.allaboutapps.quarkus.integresql.deployment.devservices;
 
 import at.allaboutapps.quarkus.integresql.deployment.IntegresqlConstants;
 import at.allaboutapps.quarkus.integresql.deployment.config.IntegresqlBuildTimeConfig;
+import at.allaboutapps.quarkus.integresql.deployment.config.NetworkMode;
 import at.allaboutapps.quarkus.integresql.deployment.container.IntegreSQLContainer;
+import com.github.dockerjava.api.model.ContainerNetwork;
 import io.quarkus.deployment.builditem.DevServicesResultBuildItem;
 import org.jboss.logging.Logger;
 import org.testcontainers.containers.GenericContainer;
@@ -12,11 +14,17 @@ import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.utility.DockerImageName;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class IntegreSQLRunningDevService {
     private final String NETWORK_ALIAS = "integresql";
@@ -37,12 +45,19 @@ public class IntegreSQLRunningDevService {
     public DevServicesResultBuildItem.RunningDevService run(String feature, boolean useSharedNetwork, Duration timeout,
             IntegresqlBuildTimeConfig integresqlConfig, String serviceName) {
         PostgreSQLContainer<?> postgresqlContainer = null; // Declare outside try for cleanup
-        GenericContainer<?> container = null;
+        IntegreSQLContainer container = null;
         Network network = null; // Declare outside try for cleanup
 
         int pgPort = integresqlConfig.devServices().db().port().orElse(PostgreSQLContainer.POSTGRESQL_PORT);
+        NetworkMode networkMode = resolveNetworkMode(integresqlConfig.devServices().networkMode());
+        boolean hostNetwork = networkMode == NetworkMode.HOST;
 
-        log.infof("Using PostgreSQL port: %d", pgPort);
+        log.infof("Using PostgreSQL port: %d (network mode: %s)", pgPort, networkMode);
+        if (hostNetwork) {
+            // Nothing maps the ports in host mode, the containers bind them directly
+            ensurePortsFree(integresqlConfig.devServices().port().orElse(IntegreSQLContainer.INTEGRESQL_PORT),
+                    pgPort);
+        }
 
         try {
             postgresqlContainer = new PostgreSQLContainer<>(
@@ -52,10 +67,10 @@ public class IntegreSQLRunningDevService {
                     .withUsername("dbuser")
                     .withPassword("dbpass")
                     .withStartupTimeout(Duration.ofSeconds(120))
-                    .withNetworkAliases(NETWORK_ALIAS)
                     .withCommand("postgres", "-c", "shared_buffers=128MB", "-c", "fsync=off", "-c",
                             "synchronous_commit=off", "-c", "full_page_writes=off", "-c", "max_connections=100", "-c",
-                            "client_min_messages=warning")
+                            "client_min_messages=warning", "-c",
+                            "port=" + (hostNetwork ? pgPort : PostgreSQLContainer.POSTGRESQL_PORT))
                     .waitingFor(Wait.forListeningPort());
 
             if (integresqlConfig.devServices().port().isPresent()) {
@@ -66,29 +81,49 @@ public class IntegreSQLRunningDevService {
             }
 
             // configure network
-            if (useSharedNetwork) {
-                postgresqlContainer.withNetwork(Network.SHARED);
-                container.withNetwork(Network.SHARED);
+            if (hostNetwork) {
+                // Both containers share the network stack of the host, PostgreSQL
+                // binds the configured port itself and is reached on localhost.
+                postgresqlContainer.withNetworkMode("host")
+                        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*\\s", 2));
+                container.withHostNetwork(true)
+                        .withEnv("PGHOST", "localhost")
+                        .withEnv("PGPORT", String.valueOf(pgPort));
             } else {
-                network = Network.newNetwork();
+                postgresqlContainer.withNetworkAliases(NETWORK_ALIAS);
+                container.withEnv("PGHOST", NETWORK_ALIAS);
+                if (useSharedNetwork) {
+                    postgresqlContainer.withNetwork(Network.SHARED);
+                    container.withNetwork(Network.SHARED);
+                } else {
+                    network = Network.newNetwork();
 
-                postgresqlContainer.withNetwork(network);
-                container.withNetwork(network);
+                    postgresqlContainer.withNetwork(network);
+                    container.withNetwork(network);
+                }
             }
 
             container
-                    .withEnv("PGHOST", NETWORK_ALIAS)
                     // .withEnv("PGPORT", String.valueOf(pgPort))
                     .withEnv("PGUSER", postgresqlContainer.getUsername())
                     .withEnv("PGPASSWORD", postgresqlContainer.getPassword())
                     .withStartupTimeout(Duration.ofSeconds(120))
-                    .dependsOn(postgresqlContainer) // Ensure Postgres starts first
-                    .waitingFor(Wait.forListeningPort());
+                    .dependsOn(postgresqlContainer); // Ensure Postgres starts first
+
+            // Only report ready once PostgreSQL answers queries and the IntegreSQL
+            // manager accepts calls, so the first test never races the manager.
+            PostgreSQLContainer<?> database = postgresqlContainer;
+            container.withDatabaseReadinessProbe(
+                    () -> hostNetwork
+                            ? String.format("jdbc:postgresql://localhost:%d/%s", pgPort, database.getDatabaseName())
+                            : database.getJdbcUrl(),
+                    postgresqlContainer.getUsername(),
+                    postgresqlContainer.getPassword());
 
             Optional.ofNullable(timeout).ifPresent(container::withStartupTimeout);
             container.withEnv(integresqlConfig.devServices().containerEnv());
 
-            if (integresqlConfig.devServices().db().port().isPresent()) {
+            if (!hostNetwork && integresqlConfig.devServices().db().port().isPresent()) {
                 log.infof("Setting port bindings for PostgreSQL container: %d:%d", pgPort,
                         PostgreSQLContainer.POSTGRESQL_PORT);
                 postgresqlContainer.setPortBindings(
@@ -98,28 +133,53 @@ public class IntegreSQLRunningDevService {
             postgresqlContainer.start();
             container.start();
 
-            // Get the actual mapped port that PostgreSQL is accessible on
-            int postgresPort = postgresqlContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT);
-
-            String postgresHost = postgresqlContainer.getHost();
+            // Resolve the addresses the application uses to reach both containers
+            String postgresHost;
+            int postgresPort;
+            String host;
+            int port;
+            switch (networkMode) {
+                case HOST:
+                    postgresHost = "localhost";
+                    postgresPort = pgPort;
+                    host = container.getHost();
+                    port = container.getPort();
+                    break;
+                case CONTAINER_ADDRESS:
+                    postgresHost = containerAddress(postgresqlContainer);
+                    postgresPort = PostgreSQLContainer.POSTGRESQL_PORT;
+                    host = containerAddress(container);
+                    port = IntegreSQLContainer.INTEGRESQL_PORT;
+                    break;
+                default:
+                    // Get the actual mapped port that PostgreSQL is accessible on
+                    postgresHost = postgresqlContainer.getHost();
+                    postgresPort = postgresqlContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT);
+                    host = container.getHost();
+                    port = container.getMappedPort(IntegreSQLContainer.INTEGRESQL_PORT);
+            }
 
             if (integresqlConfig.devServices().db().host().isPresent()) {
                 postgresHost = integresqlConfig.devServices().db().host().get();
             }
 
-            String host = container.getHost();
-            int port = container.getMappedPort(IntegreSQLContainer.INTEGRESQL_PORT);
             String baseUrl = String.format("http://%s:%d/api", host, port);
 
             log.infof("IntegreSQL Dev Service started: %s", baseUrl);
-            log.infof("PostgreSQL is accessible on port: %d", postgresPort);
+            log.infof("PostgreSQL is accessible on: %s:%d", postgresHost, postgresPort);
 
             cfg = new IntegresqlDevServiceCfg(container, postgresqlContainer,
-                    useSharedNetwork ? null : container.getNetwork());
+                    useSharedNetwork || hostNetwork ? null : container.getNetwork(),
+                    integresqlConfig.devServices().detachedTeardown());
+            // The override host/port make the client rewrite the database
+            // addresses reported by IntegreSQL (only valid within the container
+            // network) to the address reachable from the application.
             Map<String, String> config = Map.of(
                     IntegresqlConstants.CONFIG_BASE_URL, baseUrl,
                     IntegresqlConstants.CONFIG_PORT, String.valueOf(postgresPort),
                     IntegresqlConstants.CONFIG_HOST, postgresHost,
+                    IntegresqlConstants.CONFIG_OVERRIDE_PORT, String.valueOf(postgresPort),
+                    IntegresqlConstants.CONFIG_OVERRIDE_HOST, postgresHost,
                     IntegresqlConstants.CONFIG_API_VERSION, "v1");
 
             return new DevServicesResultBuildItem.RunningDevService(feature, container.getContainerId(), cfg::close,
@@ -142,50 +202,131 @@ public class IntegreSQLRunningDevService {
         }
     }
 
+    /**
+     * Host networking and direct container addresses rely on the Docker host
+     * being the machine the application runs on, which only holds on Linux.
+     */
+    private static NetworkMode resolveNetworkMode(NetworkMode requested) {
+        if (requested != NetworkMode.MAPPED && !System.getProperty("os.name", "").toLowerCase().contains("linux")) {
+            log.warnf("IntegreSQL Dev Service network mode %s requires Linux, falling back to %s.", requested,
+                    NetworkMode.MAPPED);
+            return NetworkMode.MAPPED;
+        }
+        return requested;
+    }
+
+    /**
+     * Fails with a clear message if one of the ports is already bound on this
+     * host, instead of a container that dies during startup.
+     */
+    private static void ensurePortsFree(int... ports) {
+        for (int port : ports) {
+            try (ServerSocket socket = new ServerSocket()) {
+                socket.setReuseAddress(false);
+                socket.bind(new InetSocketAddress(port));
+            } catch (IOException e) {
+                throw new IllegalStateException(String.format(
+                        "IntegreSQL Dev Service network mode host needs port %d on this host, but it is in use."
+                                + " Set quarkus.integresql.dev-services.port / quarkus.integresql.dev-services.db.port"
+                                + " to free ports or use another network mode.",
+                        port), e);
+            }
+        }
+    }
+
+    /**
+     * @return the IP address of the container on its (first) Docker network
+     */
+    private static String containerAddress(GenericContainer<?> container) {
+        return container.getContainerInfo().getNetworkSettings().getNetworks().values().stream()
+                .map(ContainerNetwork::getIpAddress)
+                .filter(address -> address != null && !address.isEmpty())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "No IP address found for container " + container.getContainerName()));
+    }
+
     public DevServicesResultBuildItem.RunningDevService getRunningDevService() {
         return runningDevServiceSupplier;
     }
 
-    private static class IntegresqlDevServiceCfg implements Closeable {
+    /**
+     * Stops the containers of the dev service.
+     * <p>
+     * Both containers are stopped concurrently. The network can only be
+     * removed once both left it, which happens in the background; if the JVM
+     * exits before, the Testcontainers reaper removes it. With
+     * {@code detached-teardown}, {@link #close()} does not wait for the
+     * containers either.
+     */
+    static class IntegresqlDevServiceCfg implements Closeable {
+
+        private static final Executor TEARDOWN_EXECUTOR = task -> {
+            Thread thread = new Thread(task, "integresql-devservice-teardown");
+            thread.setDaemon(true);
+            thread.start();
+        };
+
         private final GenericContainer<?> integresqlContainer;
         private final PostgreSQLContainer<?> postgresContainer; // Null if reusing PG Dev Svc (now unused path)
         private final Network network; // Null if reusing shared network
+        private final boolean detached;
 
         IntegresqlDevServiceCfg(GenericContainer<?> integresqlContainer, PostgreSQLContainer<?> postgresContainer,
-                Network network) {
+                Network network, boolean detached) {
             this.integresqlContainer = Objects.requireNonNull(integresqlContainer);
             this.postgresContainer = postgresContainer; // Can be null
             this.network = network; // Can be null
+            this.detached = detached;
         }
 
         @Override
         public void close() {
             log.info("Stopping IntegreSQL Dev Service resources...");
-            // Stop IntegreSQL first
-            try {
-                if (integresqlContainer.isRunning()) {
-                    integresqlContainer.stop();
-                }
-            } catch (Exception e) {
-                log.error(String.format("Failed to stop IntegreSQL container: %s", e.getMessage()));
+            long start = System.nanoTime();
+
+            CompletableFuture<Void> integresqlStopped = stopAsync("IntegreSQL container", integresqlContainer);
+            CompletableFuture<Void> postgresStopped = stopAsync("PostgreSQL container for IntegreSQL",
+                    postgresContainer);
+            CompletableFuture<Void> containersStopped = CompletableFuture.allOf(integresqlStopped, postgresStopped);
+
+            // Close network ONLY if we created it (network is not null), never waited for
+            if (network != null) {
+                containersStopped.thenRunAsync(() -> timed("network for IntegreSQL Dev Service", network::close),
+                        TEARDOWN_EXECUTOR);
             }
-            // Stop Postgres ONLY if we started it (postgresContainer is not null)
-            try {
-                if (postgresContainer != null && postgresContainer.isRunning()) {
-                    postgresContainer.stop();
-                }
-            } catch (Exception e) {
-                log.error(String.format("Failed to stop PostgreSQL container for IntegreSQL: %s", e.getMessage()));
+
+            if (detached) {
+                log.info("IntegreSQL Dev Service resources are stopped in the background.");
+                return;
             }
-            // Close network ONLY if we created it (network is not null)
-            try {
-                if (network != null) {
-                    network.close();
+            containersStopped.join();
+            log.infof("IntegreSQL Dev Service resources stopped in %d ms.", millisSince(start));
+        }
+
+        private static CompletableFuture<Void> stopAsync(String name, GenericContainer<?> container) {
+            if (container == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.runAsync(() -> timed(name, () -> {
+                if (container.isRunning()) {
+                    container.stop();
                 }
+            }), TEARDOWN_EXECUTOR);
+        }
+
+        private static void timed(String name, Runnable step) {
+            long start = System.nanoTime();
+            try {
+                step.run();
+                log.debugf("Stopped %s in %d ms", name, millisSince(start));
             } catch (Exception e) {
-                log.error(String.format("Failed to close network for IntegreSQL Dev Service: %s", e.getMessage()));
+                log.error(String.format("Failed to stop %s: %s", name, e.getMessage()));
             }
-            log.info("IntegreSQL Dev Service resources stopped.");
+        }
+
+        private static long millisSince(long start) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
         }
     }
 }
@@ -0,0 +1,104 @@
+package at.allaboutapps.quarkus.integresql.deployment.container;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.ContainerLaunchException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for the readiness probes of {@link IntegreSQLReadinessWaitStrategy},
+ * against a local HTTP server standing in for the IntegreSQL API.
+ */
+public class IntegreSQLReadinessWaitStrategyTest {
+
+    private static final String PROBE_PATH = "/api/v1/templates/quarkus-integresql-readiness-probe";
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger unavailableResponses = new AtomicInteger();
+    private volatile int readyStatus = 404;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            // Answer 503 like a manager that is not connected to PostgreSQL yet
+            int status = unavailableResponses.getAndDecrement() > 0 ? 503 : readyStatus;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should be ready once the probe answers below 500")
+    void testReadyAfterUnavailable() {
+        unavailableResponses.set(3);
+
+        newStrategy(Duration.ofSeconds(10)).waitUntilReady();
+
+        assertEquals(4, requests.size(), "Should probe until the manager stops answering 503.");
+        requests.forEach(request -> assertEquals("DELETE " + PROBE_PATH, request));
+    }
+
+    @Test
+    @DisplayName("Should treat any status below 500 as ready")
+    void testAnyStatusBelow500IsReady() {
+        readyStatus = 204;
+
+        newStrategy(Duration.ofSeconds(10)).waitUntilReady();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    @DisplayName("Should fail once the startup timeout is exceeded")
+    void testTimeout() {
+        unavailableResponses.set(Integer.MAX_VALUE);
+
+        ContainerLaunchException e = assertThrows(ContainerLaunchException.class,
+                () -> newStrategy(Duration.ofMillis(500)).waitUntilReady());
+        assertTrue(e.getMessage().contains("IntegreSQL API ready: false"), e.getMessage());
+        assertFalse(requests.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not probe the API before PostgreSQL is reachable")
+    void testTimeoutWhileDatabaseUnreachable() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        IntegreSQLReadinessWaitStrategy strategy = newStrategy(Duration.ofMillis(500))
+                .withDatabase(() -> "jdbc:postgresql://localhost:" + closedPort + "/postgres", "user", "pass");
+
+        ContainerLaunchException e = assertThrows(ContainerLaunchException.class, strategy::waitUntilReady);
+        assertTrue(e.getMessage().contains("PostgreSQL ready: false"), e.getMessage());
+        assertTrue(requests.isEmpty(), "The API should only be probed once PostgreSQL is ready.");
+    }
+
+    private IntegreSQLReadinessWaitStrategy newStrategy(Duration timeout) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/api";
+        IntegreSQLReadinessWaitStrategy strategy = new IntegreSQLReadinessWaitStrategy(() -> baseUrl);
+        strategy.withStartupTimeout(timeout);
+        return strategy;
+    }
+}
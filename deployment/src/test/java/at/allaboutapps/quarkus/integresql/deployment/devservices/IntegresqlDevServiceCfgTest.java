@@ -0,0 +1,121 @@
+package at.allaboutapps.quarkus.integresql.deployment.devservices;
+
+import at.allaboutapps.quarkus.integresql.deployment.devservices.IntegreSQLRunningDevService.IntegresqlDevServiceCfg;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Test for the teardown of the IntegreSQL Dev Service containers, with
+ * stand-ins for the containers that only record being stopped.
+ */
+public class IntegresqlDevServiceCfgTest {
+
+    @Test
+    @DisplayName("Should stop both containers concurrently")
+    void testStopsContainersConcurrently() throws Exception {
+        // Each stop only returns once both containers are stopping at the same time
+        CyclicBarrier bothStopping = new CyclicBarrier(2);
+        CountDownLatch stopped = new CountDownLatch(2);
+        GenericContainer<?> integresql = integresqlContainer(() -> awaitBarrier(bothStopping), stopped);
+        PostgreSQLContainer<?> postgres = postgresContainer(() -> awaitBarrier(bothStopping), stopped);
+
+        new IntegresqlDevServiceCfg(integresql, postgres, null, false).close();
+
+        assertEquals(0, stopped.getCount(), "Close should return once both containers are stopped.");
+        assertFalse(bothStopping.isBroken(), "Containers should have been stopped concurrently.");
+    }
+
+    @Test
+    @DisplayName("Should return without waiting for the containers in detached mode")
+    void testDetachedCloseReturnsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(2);
+        GenericContainer<?> integresql = integresqlContainer(() -> awaitLatch(release), stopped);
+        PostgreSQLContainer<?> postgres = postgresContainer(() -> awaitLatch(release), stopped);
+
+        new IntegresqlDevServiceCfg(integresql, postgres, null, true).close();
+
+        assertEquals(2, stopped.getCount(), "Close should not wait for the containers to stop.");
+        release.countDown();
+        assertTrue(stopped.await(10, TimeUnit.SECONDS), "Containers should still be stopped in the background.");
+    }
+
+    private static GenericContainer<?> integresqlContainer(Runnable onStop, CountDownLatch stopped) {
+        return new StubIntegresqlContainer(onStop, stopped);
+    }
+
+    private static PostgreSQLContainer<?> postgresContainer(Runnable onStop, CountDownLatch stopped) {
+        return new StubPostgreSQLContainer(onStop, stopped);
+    }
+
+    private static void awaitBarrier(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Containers were not stopped concurrently", e);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class StubIntegresqlContainer extends GenericContainer<StubIntegresqlContainer> {
+
+        private final Runnable onStop;
+        private final CountDownLatch stopped;
+
+        StubIntegresqlContainer(Runnable onStop, CountDownLatch stopped) {
+            super("ghcr.io/allaboutapps/integresql:latest");
+            this.onStop = onStop;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+            onStop.run();
+            stopped.countDown();
+        }
+    }
+
+    private static class StubPostgreSQLContainer extends PostgreSQLContainer<StubPostgreSQLContainer> {
+
+        private final Runnable onStop;
+        private final CountDownLatch stopped;
+
+        StubPostgreSQLContainer(Runnable onStop, CountDownLatch stopped) {
+            super("postgres:16");
+            this.onStop = onStop;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+            onStop.run();
+            stopped.countDown();
+        }
+    }
+}
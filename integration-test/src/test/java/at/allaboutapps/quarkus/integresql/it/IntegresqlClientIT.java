@@ -246,13 +246,9 @@ public class IntegresqlClientIT {
         log.infof("Got first test DB: %s", db1.database.templateHash);
 
         // 3. Ping first test database
+        // The client bean hands out the address PostgreSQL is reachable on from
+        // here, whatever the network mode of the Dev Service
         DatabaseConfig config1 = db1.database.config;
-        config1.host = "localhost";
-
-        int port = ConfigProvider.getConfig().getValue("quarkus.integresql.dev-services.db.port",
-                int.class);
-
-        config1.port = port;
         String url1 = config1.connectionString();
 
         try (Connection conn1 = DriverManager.getConnection(url1, config1.username, config1.password)) {
@@ -284,8 +280,6 @@ public class IntegresqlClientIT {
 
         // 5. Ping second test database
         DatabaseConfig config2 = db2.database.config;
-        config2.host = "localhost";
-        config2.port = port;
         String url2 = config2.connectionString();
         try (Connection conn2 = DriverManager.getConnection(url2, config2.username, config2.password)) {
             assertTrue(conn2.isValid(5));
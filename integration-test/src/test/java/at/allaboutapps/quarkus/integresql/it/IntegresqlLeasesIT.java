@@ -0,0 +1,146 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.ReleaseMode;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the lease handles provided by the extension.
+ */
+@QuarkusTest
+public class IntegresqlLeasesIT {
+
+    private static final Logger log = Logger.getLogger(IntegresqlLeasesIT.class);
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    private String hash;
+
+    @BeforeEach
+    void prepareTemplate() {
+        hash = "quarkus-it-lease-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            DatabaseConfig config = template.database.config;
+            try (Connection connection = DriverManager.getConnection(config.connectionString(), config.username,
+                    config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+            }
+        });
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            // Releases run in the background, let them finish before dropping the template
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand out a database that is reachable without rewriting its address")
+    void testLeaseIsReachable() throws SQLException {
+        try (IntegresqlLease lease = leases.lease(hash);
+                Connection connection = DriverManager.getConnection(lease.jdbcUrl(), lease.username(),
+                        lease.password())) {
+            assertTrue(connection.isValid(5));
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete an asynchronous lease once it is ready")
+    void testLeaseAsyncIsReady() throws Exception {
+        try (IntegresqlLease lease = leases.leaseAsync(hash).toCompletableFuture().get(30, TimeUnit.SECONDS);
+                Connection connection = lease.connection()) {
+            assertTrue(lease.isReady());
+            assertTrue(connection.isValid(5));
+        }
+    }
+
+    @Test
+    @DisplayName("Should expose connection settings and release the database on close")
+    void testLeaseAndClose() {
+        IntegresqlLease lease = leases.lease(hash);
+        try (lease) {
+            assertEquals(hash, lease.templateHash());
+            assertNotNull(lease.jdbcUrl(), "Lease should expose a JDBC URL.");
+            assertNotNull(lease.username(), "Lease should expose a username.");
+            assertFalse(lease.databaseName().isEmpty(), "Lease database name should not be empty.");
+            assertEquals(ReleaseMode.RECREATE, lease.releaseMode());
+        }
+        assertTrue(lease.isClosed());
+
+        // Closing again must not release the database twice
+        lease.close();
+
+        try (IntegresqlLease second = leases.lease(hash, ReleaseMode.RETURN)) {
+            assertNotNull(second.jdbcUrl());
+            assertEquals(ReleaseMode.RETURN, second.releaseMode());
+        }
+    }
+
+    @Test
+    @IntegresqlLeaseMode(LeaseMode.ROLLBACK)
+    @DisplayName("Should roll back changes and reuse the database for rollback leases")
+    void testRollbackLease(TestInfo testInfo) throws SQLException {
+        int databaseId;
+        try (IntegresqlLease lease = leases.lease(hash, testInfo.getTestMethod().orElseThrow())) {
+            assertEquals(LeaseMode.ROLLBACK, lease.mode());
+            databaseId = lease.id();
+
+            Connection connection = lease.connection();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO pilots (name) VALUES ('Niki')");
+            }
+            // Committing or rolling back must not end the transaction of the lease
+            connection.commit();
+            connection.rollback();
+            assertEquals(1, countPilots(connection));
+            // Neither must code under test get hold of the connection behind it
+            assertThrows(SQLException.class, () -> connection.unwrap(PGConnection.class));
+        }
+
+        try (IntegresqlLease lease = leases.lease(hash, LeaseMode.ROLLBACK)) {
+            assertEquals(databaseId, lease.id(), "Rollback leases should reuse the idle database.");
+            assertEquals(0, countPilots(lease.connection()), "Changes of the previous lease should be rolled back.");
+        }
+    }
+
+    private static int countPilots(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM pilots")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantConnectionResolver;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the default Hibernate ORM persistence unit following
+ * the current lease.
+ */
+@QuarkusTest
+@TestProfile(IntegresqlOrmIT.OrmProfile.class)
+public class IntegresqlOrmIT {
+
+    private static final Logger log = Logger.getLogger(IntegresqlOrmIT.class);
+
+    public static class OrmProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.integresql.orm.enabled", "true",
+                    "quarkus.hibernate-orm.multitenant", "DATABASE");
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    @PersistenceUnitExtension
+    TenantConnectionResolver connectionResolver;
+
+    private String hash;
+
+    @BeforeEach
+    void prepareTemplate() {
+        hash = "quarkus-it-orm-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            DatabaseConfig config = template.database.config;
+            try (Connection connection = DriverManager.getConnection(config.connectionString(), config.username,
+                    config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE orm_pilots (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                        + " name VARCHAR(255))");
+            }
+        });
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not see entities persisted in a previous lease")
+    void testEntitiesStayInTheirLease() {
+        String firstDatabase;
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash))) {
+            firstDatabase = lease.databaseName();
+            QuarkusTransaction.requiringNew().run(() -> entityManager.persist(new OrmPilot("Niki")));
+            assertEquals(1, countPilots());
+        }
+
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash))) {
+            assertNotEquals(firstDatabase, lease.databaseName());
+            assertEquals(0, countPilots(), "Entities of the previous lease should not be visible.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll back transactions on the leased database")
+    void testRollback() {
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash))) {
+            QuarkusTransaction.begin();
+            entityManager.persist(new OrmPilot("Niki"));
+            entityManager.flush();
+            assertEquals(1, entityManager.createQuery("SELECT count(p) FROM OrmPilot p", Long.class)
+                    .getSingleResult(), "Flushed entity should be visible within the transaction.");
+            QuarkusTransaction.rollback();
+
+            assertEquals(0, countPilots(), "Rolled back entity should not be persisted.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse connections to a rollback database whose lease is not current")
+    void testRollbackDatabaseOutsideItsLease() throws Exception {
+        try (IntegresqlLease rollbackLease = leases.activate(leases.lease(hash, LeaseMode.ROLLBACK))) {
+            try (Connection connection = connectionResolver.resolve(rollbackLease.databaseName()).getConnection()) {
+                assertSame(rollbackLease.connection(), connection,
+                        "Sessions should use the connection of the current rollback lease.");
+            }
+
+            try (IntegresqlLease other = leases.activate(leases.lease(hash))) {
+                assertThrows(IllegalStateException.class,
+                        () -> connectionResolver.resolve(rollbackLease.databaseName()).getConnection(),
+                        "Sessions should not bypass the transaction of a rollback lease.");
+            }
+        }
+    }
+
+    private long countPilots() {
+        return QuarkusTransaction.requiringNew().call(() -> entityManager
+                .createQuery("SELECT count(p) FROM OrmPilot p", Long.class)
+                .getSingleResult());
+    }
+}
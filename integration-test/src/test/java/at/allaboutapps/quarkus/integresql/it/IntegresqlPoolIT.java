@@ -0,0 +1,139 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.IntegresqlPool;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.LeasePools;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the reactive {@link IntegresqlPool} following the
+ * current lease.
+ */
+@QuarkusTest
+@TestProfile(IntegresqlPoolIT.SinglePoolProfile.class)
+public class IntegresqlPoolIT {
+
+    private static final Logger log = Logger.getLogger(IntegresqlPoolIT.class);
+
+    public static class SinglePoolProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.integresql.reactive.max-pools", "1");
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    LeasePools leasePools;
+
+    @Inject
+    @IntegresqlPool
+    Pool pool;
+
+    private String hash;
+
+    @BeforeEach
+    void prepareTemplate() {
+        hash = "quarkus-it-pool-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            DatabaseConfig config = template.database.config;
+            try (Connection connection = DriverManager.getConnection(config.connectionString(), config.username,
+                    config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+            }
+        });
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should query the database of the current lease")
+    void testFollowsCurrentLease() throws Exception {
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash))) {
+            assertEquals(lease.databaseName(), await(pool.query("SELECT current_database()").execute())
+                    .iterator().next().getString(0));
+            await(pool.query("INSERT INTO pilots (name) VALUES ('Niki')").execute());
+            assertEquals(1, countPilots(pool));
+        }
+
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash))) {
+            assertEquals(lease.databaseName(), await(pool.query("SELECT current_database()").execute())
+                    .iterator().next().getString(0));
+            assertEquals(0, countPilots(pool), "Rows of the previous lease should not be visible.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the pool of an open lease beyond the pool limit")
+    void testKeepsPoolOfOpenLease() throws Exception {
+        try (IntegresqlLease first = leases.lease(hash);
+                IntegresqlLease second = leases.lease(hash)) {
+            Pool firstPool = leasePools.pool(first);
+            assertEquals(0, countPilots(firstPool));
+
+            // Exceeds max-pools=1, but the first lease is still open
+            assertEquals(0, countPilots(leasePools.pool(second)));
+
+            assertSame(firstPool, leasePools.pool(first));
+            assertEquals(0, countPilots(firstPool), "Pool of the open lease should not have been closed.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse pools for rollback leases")
+    void testRefusesRollbackLease() {
+        try (IntegresqlLease lease = leases.activate(leases.lease(hash, LeaseMode.ROLLBACK))) {
+            assertThrows(IllegalStateException.class, () -> leasePools.pool(lease));
+            assertThrows(IllegalStateException.class, () -> pool.query("SELECT 1"),
+                    "Pool following a rollback lease should fail fast.");
+        }
+    }
+
+    private static int countPilots(Pool pool) throws Exception {
+        Row row = await(pool.query("SELECT count(*) FROM pilots").execute()).iterator().next();
+        return row.getInteger(0);
+    }
+
+    private static RowSet<Row> await(Future<RowSet<Row>> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,175 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.TemplateState;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the template state cache provided by the extension.
+ */
+@QuarkusTest
+public class IntegresqlTemplatesIT {
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    IntegresqlJavaClient client;
+
+    @Test
+    @DisplayName("Should set up a template once and answer later checks from the cache")
+    void testEnsureTemplateOnce() {
+        String hash = "quarkus-it-cache-" + System.nanoTime();
+        AtomicInteger setups = new AtomicInteger();
+
+        assertTrue(templates.state(hash).isEmpty());
+
+        templates.ensureTemplate(hash, template -> {
+            assertNotNull(template.database.config);
+            setups.incrementAndGet();
+        });
+        templates.ensureTemplate(hash, template -> setups.incrementAndGet());
+
+        assertEquals(1, setups.get(), "Template should only be set up once.");
+        assertTrue(templates.isReady(hash));
+
+        templates.discardTemplate(hash);
+        assertEquals(TemplateState.DISCARDED, templates.state(hash).orElseThrow());
+        assertFalse(templates.isReady(hash));
+    }
+
+    @Test
+    @DisplayName("Should discard the template if its setup fails")
+    void testFailedSetupDiscardsTemplate() {
+        String hash = "quarkus-it-cache-fail-" + System.nanoTime();
+
+        assertThrows(IllegalStateException.class, () -> templates.ensureTemplate(hash, template -> {
+            throw new IllegalArgumentException("setup failed");
+        }));
+        assertEquals(TemplateState.DISCARDED, templates.state(hash).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should use a template initialized elsewhere instead of failing")
+    void testTemplateInitializedElsewhere() {
+        String hash = "quarkus-it-elsewhere-" + System.nanoTime();
+        // Another JVM (or this one before a dev mode restart) set up the template
+        client.initializeTemplate(hash);
+        client.finalizeTemplate(hash);
+
+        try {
+            templates.ensureTemplate(hash, template -> fail("Template should not be set up again."));
+            assertEquals(TemplateState.FINALIZED_ELSEWHERE, templates.state(hash).orElseThrow());
+            assertTrue(templates.isReady(hash));
+        } finally {
+            templates.discardTemplate(hash);
+        }
+    }
+
+    @Test
+    @DisplayName("Should set up a template again that was initialized elsewhere but never finalized")
+    void testTemplateAbandonedElsewhere() {
+        String hash = "quarkus-it-abandoned-" + System.nanoTime();
+        // A setup that crashed before finalizing the template
+        client.initializeTemplate(hash);
+
+        AtomicInteger setups = new AtomicInteger();
+        try {
+            templates.ensureTemplate(hash, template -> setups.incrementAndGet());
+            assertEquals(1, setups.get(), "Abandoned template should be set up again.");
+            assertEquals(TemplateState.FINALIZED, templates.state(hash).orElseThrow());
+        } finally {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        }
+    }
+
+    @Test
+    @DisplayName("Should build derived templates from a parent concurrently")
+    void testDerivedTemplates() throws Exception {
+        String parentHash = "quarkus-it-parent-" + System.nanoTime();
+        templates.ensureTemplate(parentHash, template -> execute(template,
+                "CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)"));
+
+        CompletableFuture<String> oneHash = templates.ensureDerivedTemplateAsync(parentHash, "one-pilot",
+                template -> execute(template, "INSERT INTO pilots (name) VALUES ('Maverick')"))
+                .toCompletableFuture();
+        CompletableFuture<String> twoHash = templates.ensureDerivedTemplateAsync(parentHash, "two-pilots",
+                template -> execute(template, "INSERT INTO pilots (name) VALUES ('Maverick'), ('Goose')"))
+                .toCompletableFuture();
+
+        try {
+            assertEquals(templates.derivedHash(parentHash, "one-pilot"), oneHash.get());
+            assertEquals(1, countPilots(oneHash.get()));
+            assertEquals(2, countPilots(twoHash.get()));
+            assertEquals(oneHash.get(), templates.ensureDerivedTemplate(parentHash, "one-pilot",
+                    template -> fail("Derived template should only be set up once.")));
+        } finally {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(oneHash.get());
+            templates.discardTemplate(twoHash.get());
+            templates.discardTemplate(parentHash);
+        }
+    }
+
+    @Test
+    @DisplayName("Should derive a template from a parent finalized elsewhere")
+    void testDerivedTemplateOfParentFinalizedElsewhere() throws Exception {
+        String parentHash = "quarkus-it-parent-elsewhere-" + System.nanoTime();
+        // Another JVM set up the parent, this one never saw its template database
+        execute(client.initializeTemplate(parentHash),
+                "CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+        client.finalizeTemplate(parentHash);
+        templates.ensureTemplate(parentHash, template -> fail("Parent should not be set up again."));
+        assertEquals(TemplateState.FINALIZED_ELSEWHERE, templates.state(parentHash).orElseThrow());
+
+        String hash = templates.ensureDerivedTemplate(parentHash, "one-pilot",
+                template -> execute(template, "INSERT INTO pilots (name) VALUES ('Maverick')"));
+        try {
+            assertEquals(1, countPilots(hash));
+        } finally {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+            templates.discardTemplate(parentHash);
+        }
+    }
+
+    private int countPilots(String hash) throws SQLException {
+        try (IntegresqlLease lease = leases.lease(hash);
+                Connection connection = lease.connection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT count(*) FROM pilots")) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    private static void execute(TemplateDatabase template, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(template.database.config.connectionString(),
+                template.database.config.username, template.database.config.password);
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.ReleaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.reactive.LeasePools;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.vertx.sqlclient.Pool;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the pools of databases returned to IntegreSQL being
+ * reused by the next lease of the same database.
+ */
+@QuarkusTest
+@TestProfile(LeasePoolReuseIT.ManyPoolsProfile.class)
+public class LeasePoolReuseIT {
+
+    private static final Logger log = Logger.getLogger(LeasePoolReuseIT.class);
+
+    /** IntegreSQL hands out its pre-created clones first, returned ones after. */
+    private static final int MAX_LEASES = 50;
+
+    public static class ManyPoolsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // Keep every pool until its database comes around again
+            return Map.of("quarkus.integresql.reactive.max-pools", String.valueOf(MAX_LEASES));
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    LeasePools leasePools;
+
+    private String hash;
+
+    @BeforeEach
+    void prepareTemplate() {
+        hash = "quarkus-it-pool-reuse-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            DatabaseConfig config = template.database.config;
+            try (Connection connection = DriverManager.getConnection(config.connectionString(), config.username,
+                    config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+            }
+        });
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse the pool when a returned database is leased again")
+    void testReusesPoolOfReturnedDatabase() throws Exception {
+        Map<String, Pool> pools = new HashMap<>();
+        for (int i = 0; i < MAX_LEASES; i++) {
+            try (IntegresqlLease lease = leases.lease(hash, ReleaseMode.RETURN)) {
+                Pool pool = leasePools.pool(lease);
+                assertEquals(lease.databaseName(), pool.query("SELECT current_database()").execute()
+                        .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+                        .iterator().next().getString(0));
+
+                Pool previous = pools.putIfAbsent(lease.databaseName(), pool);
+                if (previous != null) {
+                    assertSame(previous, pool, "Pool of the returned database should have been kept.");
+                    return;
+                }
+            }
+            leases.awaitReleases(Duration.ofSeconds(30));
+        }
+        fail("IntegreSQL did not hand out a returned database again within " + MAX_LEASES + " leases.");
+    }
+}
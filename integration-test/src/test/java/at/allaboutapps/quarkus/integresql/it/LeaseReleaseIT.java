@@ -0,0 +1,144 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlExecutor;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for releasing closed leases in the background, with the
+ * executor blocked so releases cannot finish until the test lets them.
+ */
+@QuarkusTest
+@TestProfile(LeaseReleaseIT.SingleReleaseProfile.class)
+public class LeaseReleaseIT {
+
+    private static final Logger log = Logger.getLogger(LeaseReleaseIT.class);
+
+    public static class SingleReleaseProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.integresql.lease.release-queue-size", "1",
+                    "quarkus.integresql.executor.max-concurrency", "1");
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    IntegresqlExecutor executor;
+
+    private String hash;
+    private CountDownLatch unblock;
+
+    @BeforeEach
+    void prepareTemplate() {
+        hash = "quarkus-it-release-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+        });
+        unblock = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            unblock.countDown();
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return from close without waiting for the release")
+    void testCloseDoesNotWaitForRelease() throws Exception {
+        IntegresqlLease lease = leases.lease(hash);
+        blockExecutor();
+
+        long start = System.nanoTime();
+        lease.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "Close should not wait for the release.");
+        assertEquals(1, leases.pendingReleases());
+        assertThrows(IllegalStateException.class, () -> leases.awaitReleases(Duration.ofMillis(200)),
+                "The release should still be pending while the executor is blocked.");
+
+        // awaitReleases waits for the release to finish once the executor is free again
+        new Thread(() -> {
+            sleep(500);
+            unblock.countDown();
+        }).start();
+        leases.awaitReleases(Duration.ofSeconds(30));
+        assertEquals(0, leases.pendingReleases());
+    }
+
+    @Test
+    @DisplayName("Should release on the closing thread once the release queue is full")
+    void testSynchronousReleaseWhenQueueIsFull() {
+        IntegresqlLease queued = leases.lease(hash);
+        IntegresqlLease overflowing = leases.lease(hash);
+        blockExecutor();
+
+        queued.close();
+        assertEquals(1, leases.pendingReleases());
+
+        // The queue (size 1) is exhausted, so this release runs right here
+        overflowing.close();
+        assertEquals(1, leases.pendingReleases(), "The overflowing release should have finished on close.");
+
+        unblock.countDown();
+        leases.awaitReleases(Duration.ofSeconds(30));
+        assertEquals(0, leases.pendingReleases());
+    }
+
+    /**
+     * Occupies the single slot of the executor until {@link #unblock} is
+     * counted down.
+     */
+    private void blockExecutor() {
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            blocked.countDown();
+            try {
+                unblock.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS), "Executor did not pick up the blocking task.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
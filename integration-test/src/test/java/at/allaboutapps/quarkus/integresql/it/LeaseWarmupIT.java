@@ -0,0 +1,166 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseWarmup;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for warming up leased databases before they are ready.
+ */
+@QuarkusTest
+@TestProfile(LeaseWarmupIT.WarmupProfile.class)
+public class LeaseWarmupIT {
+
+    private static final Logger log = Logger.getLogger(LeaseWarmupIT.class);
+
+    public static class WarmupProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.integresql.lease.warmup.connections", "2");
+        }
+
+        @Override
+        public Set<Class<?>> getEnabledAlternatives() {
+            return Set.of(RecordingWarmup.class);
+        }
+    }
+
+    /**
+     * Records every warm-up, optionally holding it until released.
+     */
+    @Alternative
+    @ApplicationScoped
+    public static class RecordingWarmup implements LeaseWarmup {
+
+        record Run(String databaseName, boolean ready, int connections) {
+        }
+
+        final Queue<Run> runs = new ConcurrentLinkedQueue<>();
+        volatile CountDownLatch started = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void warmUp(IntegresqlLease lease, Connection connection) throws Exception {
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(
+                            "SELECT count(*) FROM pg_stat_activity WHERE datname = current_database()")) {
+                rs.next();
+                runs.add(new Run(lease.databaseName(), lease.isReady(), rs.getInt(1)));
+            }
+            started.countDown();
+            assertTrue(gate.await(30, TimeUnit.SECONDS), "Warm-up was not released.");
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Inject
+    RecordingWarmup warmup;
+
+    private String hash;
+
+    @BeforeEach
+    void prepareTemplate() {
+        warmup.runs.clear();
+        warmup.started = new CountDownLatch(1);
+        warmup.gate = new CountDownLatch(0);
+        hash = "quarkus-it-warmup-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            DatabaseConfig config = template.database.config;
+            try (Connection connection = DriverManager.getConnection(config.connectionString(), config.username,
+                    config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+            }
+        });
+    }
+
+    @AfterEach
+    void discardTemplate() {
+        try {
+            warmup.gate.countDown();
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s during cleanup: %s", hash, e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should warm up the database before the lease is ready")
+    void testWarmupBeforeReady() throws Exception {
+        try (IntegresqlLease lease = leases.leaseAsync(hash).toCompletableFuture().get(30, TimeUnit.SECONDS)) {
+            assertTrue(lease.isReady());
+            RecordingWarmup.Run run = warmup.runs.stream()
+                    .filter(candidate -> candidate.databaseName().equals(lease.databaseName()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Warm-up did not run for " + lease));
+            assertFalse(run.ready(), "Warm-up should run before the lease is ready.");
+            assertTrue(run.connections() >= 2, "Warm-up should open the configured number of connections.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should warm up the reactive pool of the lease as well")
+    void testWarmupOfReactivePool() throws Exception {
+        try (IntegresqlLease lease = leases.leaseAsync(hash).toCompletableFuture().get(30, TimeUnit.SECONDS);
+                Connection connection = lease.connection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(
+                        "SELECT count(*) FROM pg_stat_activity WHERE datname = current_database()")) {
+            assertTrue(rs.next());
+            // Two pooled JDBC connections (one running this query) and two reactive ones
+            assertTrue(rs.getInt(1) >= 4, "Warm-up should open the connections of the reactive pool too.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should close a lease without waiting for its warm-up")
+    void testCloseDuringWarmup() throws Exception {
+        warmup.gate = new CountDownLatch(1);
+        IntegresqlLease lease = leases.lease(hash);
+        assertTrue(warmup.started.await(30, TimeUnit.SECONDS), "Warm-up did not start.");
+        assertFalse(lease.isReady());
+
+        long start = System.nanoTime();
+        lease.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Close should not wait for the warm-up.");
+        assertThrows(IllegalStateException.class, () -> leases.awaitReleases(Duration.ofMillis(200)),
+                "The database should not be released while the warm-up runs.");
+
+        warmup.gate.countDown();
+        leases.awaitReleases(Duration.ofSeconds(30));
+        assertTrue(lease.isReady());
+    }
+}
@@ -0,0 +1,28 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Entity used by {@link IntegresqlOrmIT}, its table is created by the template.
+ */
+@Entity
+@Table(name = "orm_pilots")
+public class OrmPilot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    public String name;
+
+    public OrmPilot() {
+    }
+
+    public OrmPilot(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,90 @@
+package at.allaboutapps.quarkus.integresql.it;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlTemplates;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test for the post-processing of template databases.
+ */
+@QuarkusTest
+@TestProfile(TemplatePostProcessingIT.PostProcessingProfile.class)
+public class TemplatePostProcessingIT {
+
+    public static class PostProcessingProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.integresql.template.unlogged-tables", "true",
+                    "quarkus.integresql.template.deferrable-foreign-keys", "true",
+                    "quarkus.integresql.template.exclude-tables", "audit");
+        }
+    }
+
+    @Inject
+    IntegresqlTemplates templates;
+
+    @Inject
+    IntegresqlLeases leases;
+
+    @Test
+    @DisplayName("Clones should inherit unlogged tables and deferred foreign keys")
+    void testClonesInheritPostProcessing() throws SQLException {
+        String hash = "quarkus-it-post-processing-" + System.nanoTime();
+        templates.ensureTemplate(hash, template -> {
+            try (Connection connection = DriverManager.getConnection(template.database.config.connectionString(),
+                    template.database.config.username, template.database.config.password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE pilots (id SERIAL PRIMARY KEY, name TEXT NOT NULL)");
+                statement.execute("CREATE TABLE jets (id SERIAL PRIMARY KEY, pilot_id INT REFERENCES pilots (id))");
+                statement.execute("CREATE TABLE pilot_notes (id SERIAL PRIMARY KEY, note TEXT)");
+                statement.execute("CREATE TABLE audit (id SERIAL PRIMARY KEY, note_id INT REFERENCES pilot_notes (id))");
+            }
+        });
+
+        try (IntegresqlLease lease = leases.lease(hash);
+                Connection connection = lease.connection()) {
+            assertEquals("u", persistence(connection, "pilots"));
+            assertEquals("u", persistence(connection, "jets"));
+            assertEquals("p", persistence(connection, "audit"), "Excluded table should stay logged.");
+            assertEquals("p", persistence(connection, "pilot_notes"),
+                    "Table referenced by a logged table should stay logged.");
+
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(
+                            "SELECT condeferrable, condeferred FROM pg_constraint WHERE conrelid = 'jets'::regclass AND contype = 'f'")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getBoolean(1));
+                assertTrue(rs.getBoolean(2));
+            }
+        } finally {
+            leases.awaitReleases(Duration.ofSeconds(30));
+            templates.discardTemplate(hash);
+        }
+    }
+
+    private static String persistence(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(
+                        "SELECT relpersistence FROM pg_class WHERE oid = '" + table + "'::regclass")) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+}
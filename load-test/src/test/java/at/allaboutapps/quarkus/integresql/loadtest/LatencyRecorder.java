@@ -0,0 +1,72 @@
+package at.allaboutapps.quarkus.integresql.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects raw latency samples (in nanoseconds) for a single operation.
+ * Not thread-safe: every worker records into its own instance, the instances
+ * are merged once the run has finished.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    long count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /**
+     * Sorts the collected samples. Must be called before reading percentiles.
+     */
+    void seal() {
+        Arrays.sort(samples, 0, size);
+    }
+
+    /**
+     * @param percentile the percentile in the range (0, 100], e.g. 99.9
+     * @return the latency at the given percentile in milliseconds, or 0 if
+     *         nothing was recorded
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return toMillis(samples[Math.min(Math.max(index, 0), size - 1)]);
+    }
+
+    double maxMillis() {
+        return size == 0 ? 0 : toMillis(samples[size - 1]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
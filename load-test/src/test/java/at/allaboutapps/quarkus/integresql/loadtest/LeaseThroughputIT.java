@@ -0,0 +1,256 @@
+package at.allaboutapps.quarkus.integresql.loadtest;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end lease throughput harness for the IntegreSQL extension.
+ * <p>
+ * Runs against the PostgreSQL and IntegreSQL containers started by the Dev
+ * Service. A configurable number of workers loop over
+ * lease &rarr; connect &rarr; a few SQL statements &rarr; return/recreate until
+ * the configured duration has elapsed, then throughput and p50/p99/p999
+ * latency are reported per operation together with the pool exhaustion events
+ * (failed {@code getTestDatabase} calls).
+ * <p>
+ * Run with {@code ./mvnw -B verify -Pload-test -pl load-test -am}, tuning
+ * the run with the following system properties:
+ * <ul>
+ * <li>{@code integresql.load.workers} - number of concurrent workers (default 16)</li>
+ * <li>{@code integresql.load.duration} - measured run time (default 30S)</li>
+ * <li>{@code integresql.load.warm-up} - unmeasured warm-up time (default 5S)</li>
+ * <li>{@code integresql.load.statements} - SQL statements per lease (default 3)</li>
+ * <li>{@code integresql.load.release} - {@code recreate} or {@code return} (default recreate)</li>
+ * </ul>
+ * Workers run on virtual threads when the JVM supports them (Java 21+) and
+ * on a platform thread per worker otherwise.
+ */
+@QuarkusTest
+public class LeaseThroughputIT {
+
+    private static final Logger log = Logger.getLogger(LeaseThroughputIT.class);
+
+    enum Operation {
+        LEASE, CONNECT, STATEMENT, RELEASE, CYCLE
+    }
+
+    @Inject
+    IntegresqlJavaClient client;
+
+    @Test
+    void measureLeaseThroughput() throws Exception {
+        Config config = ConfigProvider.getConfig();
+        int workers = config.getOptionalValue("integresql.load.workers", Integer.class).orElse(16);
+        Duration duration = config.getOptionalValue("integresql.load.duration", Duration.class)
+                .orElse(Duration.ofSeconds(30));
+        Duration warmUp = config.getOptionalValue("integresql.load.warm-up", Duration.class)
+                .orElse(Duration.ofSeconds(5));
+        int statements = config.getOptionalValue("integresql.load.statements", Integer.class).orElse(3);
+        boolean recreate = !"return".equalsIgnoreCase(
+                config.getOptionalValue("integresql.load.release", String.class).orElse("recreate"));
+
+        String hash = "quarkus-load-" + System.currentTimeMillis();
+        prepareTemplate(hash);
+
+        log.infof("Starting lease load test: workers=%d, warm-up=%s, duration=%s, statements=%d, release=%s",
+                workers, warmUp, duration, statements, recreate ? "recreate" : "return");
+
+        Map<String, LongAdder> exhaustionEvents = new ConcurrentHashMap<>();
+        long measureFrom = System.nanoTime() + warmUp.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        List<Future<Map<Operation, LatencyRecorder>>> results = new ArrayList<>(workers);
+        ExecutorService executor = newWorkerExecutor(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                results.add(executor.submit(() -> runWorker(hash, statements, recreate,
+                        measureFrom, deadline, exhaustionEvents)));
+            }
+
+            Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                merged.put(operation, new LatencyRecorder());
+            }
+            for (Future<Map<Operation, LatencyRecorder>> result : results) {
+                result.get().forEach((operation, recorder) -> merged.get(operation).merge(recorder));
+            }
+
+            report(merged, exhaustionEvents, duration);
+            assertTrue(merged.get(Operation.CYCLE).count() > 0, "No lease cycle completed during the load test.");
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+            client.discardTemplate(hash);
+        }
+    }
+
+    private void prepareTemplate(String hash) throws SQLException {
+        TemplateDatabase template = client.initializeTemplate(hash);
+        DatabaseConfig templateConfig = template.database.config;
+        try (Connection connection = DriverManager.getConnection(templateConfig.connectionString(),
+                templateConfig.username, templateConfig.password);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE load_probe (id BIGSERIAL PRIMARY KEY, payload TEXT NOT NULL)");
+        }
+        client.finalizeTemplate(hash);
+    }
+
+    private Map<Operation, LatencyRecorder> runWorker(String hash, int statements,
+            boolean recreate, long measureFrom, long deadline, Map<String, LongAdder> exhaustionEvents) {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long cycleStart = System.nanoTime();
+            if (cycleStart >= deadline) {
+                break;
+            }
+            boolean measured = cycleStart >= measureFrom;
+
+            TestDatabase database;
+            try {
+                database = client.getTestDatabase(hash);
+                record(recorders, Operation.LEASE, cycleStart, measured);
+            } catch (Exception e) {
+                // IntegreSQL refuses or times out the lease once every pooled
+                // database is in use, count those separately from latencies.
+                if (measured) {
+                    recorders.get(Operation.LEASE).recordError();
+                    exhaustionEvents.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder())
+                            .increment();
+                }
+                pause();
+                continue;
+            }
+
+            try {
+                runStatements(database.database.config, statements, recorders, measured);
+            } catch (SQLException e) {
+                log.debugf("SQL failed on test database %d: %s", database.id, e.getMessage());
+                if (measured) {
+                    recorders.get(Operation.STATEMENT).recordError();
+                }
+            }
+
+            long releaseStart = System.nanoTime();
+            try {
+                if (recreate) {
+                    client.recreateTestDatabase(hash, database.id);
+                } else {
+                    client.returnTestDatabase(hash, database.id);
+                }
+                record(recorders, Operation.RELEASE, releaseStart, measured);
+                record(recorders, Operation.CYCLE, cycleStart, measured);
+            } catch (Exception e) {
+                log.debugf("Failed to release test database %d: %s", database.id, e.getMessage());
+                if (measured) {
+                    recorders.get(Operation.RELEASE).recordError();
+                }
+            }
+        }
+        return recorders;
+    }
+
+    private static void runStatements(DatabaseConfig databaseConfig, int statements,
+            Map<Operation, LatencyRecorder> recorders, boolean measured) throws SQLException {
+        long connectStart = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(databaseConfig.connectionString(),
+                databaseConfig.username, databaseConfig.password);
+                Statement statement = connection.createStatement()) {
+            record(recorders, Operation.CONNECT, connectStart, measured);
+            for (int i = 0; i < statements; i++) {
+                long statementStart = System.nanoTime();
+                if (i % 2 == 0) {
+                    statement.executeUpdate("INSERT INTO load_probe (payload) VALUES ('load')");
+                } else {
+                    statement.executeQuery("SELECT count(*) FROM load_probe").close();
+                }
+                record(recorders, Operation.STATEMENT, statementStart, measured);
+            }
+        }
+    }
+
+    private static void record(Map<Operation, LatencyRecorder> recorders, Operation operation, long start,
+            boolean measured) {
+        if (measured) {
+            recorders.get(operation).record(System.nanoTime() - start);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(Map<Operation, LatencyRecorder> recorders, Map<String, LongAdder> exhaustionEvents,
+            Duration duration) {
+        double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        StringBuilder report = new StringBuilder("Lease load test results:\n");
+        report.append(String.format("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            recorder.seal();
+            report.append(String.format("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(),
+                    recorder.count(),
+                    recorder.errors(),
+                    recorder.count() / seconds,
+                    recorder.percentileMillis(50),
+                    recorder.percentileMillis(99),
+                    recorder.percentileMillis(99.9),
+                    recorder.maxMillis()));
+        }
+        if (exhaustionEvents.isEmpty()) {
+            report.append("Pool exhaustion events: none");
+        } else {
+            report.append("Pool exhaustion events:");
+            exhaustionEvents.forEach((type, count) -> report.append(String.format("%n  %s: %d", type, count.sum())));
+        }
+        log.info(report);
+    }
+
+    /**
+     * Creates a virtual thread per task executor when running on Java 21+,
+     * falling back to a fixed platform thread pool sized for the workers.
+     */
+    private static ExecutorService newWorkerExecutor(int workers) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.infof("Virtual threads not available, using %d platform threads.", workers);
+            return Executors.newFixedThreadPool(workers);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+import at.allaboutapps.integresql.config.IntegresqlClientConfig;
+
+import java.util.Optional;
+
+/**
+ * IntegreSQL client whose returned databases point at the address reachable
+ * from this JVM.
+ * <p>
+ * IntegreSQL reports the address it uses to reach PostgreSQL itself, which is
+ * usually only valid within the container network. The configured override
+ * host and port point at the address reachable from this JVM instead, and are
+ * applied to every template and test database the client returns, so callers
+ * never patch connection settings themselves.
+ */
+final class AddressRewritingClient extends IntegresqlJavaClient {
+
+    private final Optional<String> overrideHost;
+    private final Optional<Integer> overridePort;
+
+    AddressRewritingClient(IntegresqlClientConfig clientConfig, Optional<String> overrideHost,
+            Optional<Integer> overridePort) {
+        super(clientConfig);
+        this.overrideHost = overrideHost;
+        this.overridePort = overridePort;
+    }
+
+    @Override
+    public TemplateDatabase initializeTemplate(String hash) {
+        TemplateDatabase template = super.initializeTemplate(hash);
+        rewrite(template.database.config);
+        return template;
+    }
+
+    @Override
+    public TestDatabase getTestDatabase(String hash) {
+        TestDatabase testDatabase = super.getTestDatabase(hash);
+        rewrite(testDatabase.database.config);
+        return testDatabase;
+    }
+
+    private void rewrite(DatabaseConfig databaseConfig) {
+        overrideHost.ifPresent(host -> databaseConfig.host = host);
+        overridePort.ifPresent(port -> databaseConfig.port = port);
+    }
+}
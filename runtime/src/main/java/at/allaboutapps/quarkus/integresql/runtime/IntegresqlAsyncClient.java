@@ -0,0 +1,76 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking variant of {@link IntegresqlJavaClient}.
+ * <p>
+ * Every call runs on the {@link IntegresqlExecutor}, so it is safe to use
+ * from REST endpoints and event-loop code. The connection settings of the
+ * returned databases point at the address reachable from this JVM.
+ * <p>
+ * The {@link IntegresqlJavaClient} bean is left as the plain, blocking
+ * client: it is the upstream class, whose callers expect its synchronous
+ * contract. Code that must not block uses this bean instead.
+ */
+@ApplicationScoped
+public class IntegresqlAsyncClient {
+
+    private final IntegresqlJavaClient client;
+    private final IntegresqlExecutor executor;
+
+    @Inject
+    public IntegresqlAsyncClient(IntegresqlJavaClient client, IntegresqlExecutor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    public CompletionStage<TemplateDatabase> initializeTemplate(String hash) {
+        return executor.supply(() -> client.initializeTemplate(hash));
+    }
+
+    public CompletionStage<Void> finalizeTemplate(String hash) {
+        return executor.supply(() -> {
+            client.finalizeTemplate(hash);
+            return null;
+        });
+    }
+
+    public CompletionStage<Void> discardTemplate(String hash) {
+        return executor.supply(() -> {
+            client.discardTemplate(hash);
+            return null;
+        });
+    }
+
+    public CompletionStage<TestDatabase> getTestDatabase(String hash) {
+        return executor.supply(() -> client.getTestDatabase(hash));
+    }
+
+    public CompletionStage<Void> returnTestDatabase(String hash, int id) {
+        return executor.supply(() -> {
+            client.returnTestDatabase(hash, id);
+            return null;
+        });
+    }
+
+    public CompletionStage<Void> recreateTestDatabase(String hash, int id) {
+        return executor.supply(() -> {
+            client.recreateTestDatabase(hash, id);
+            return null;
+        });
+    }
+
+    public CompletionStage<Void> resetAllTracking() {
+        return executor.supply(() -> {
+            client.resetAllTracking();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.quarkus.integresql.runtime.config.ExecutorConfig;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for the blocking calls of the IntegreSQL client, so they never run
+ * on the event loop or occupy worker threads.
+ * <p>
+ * On Java 21+ every call gets its own virtual thread, making thousands of
+ * concurrent lease operations cheap. Older JVMs (or
+ * {@code quarkus.integresql.executor.virtual-threads=false}) fall back to a
+ * platform thread pool with one thread per allowed call, idle threads time
+ * out. Either way, at most
+ * {@code quarkus.integresql.executor.max-concurrency} calls run at once,
+ * further calls queue up.
+ * <p>
+ * The {@link at.allaboutapps.integresql.client.IntegresqlJavaClient} bean is
+ * the plain client and keeps blocking its caller; the extension's own beans
+ * and {@link IntegresqlAsyncClient} run their calls on this executor.
+ */
+public class IntegresqlExecutor implements Executor {
+
+    private static final Logger log = Logger.getLogger(IntegresqlExecutor.class);
+
+    private static final long PLATFORM_KEEP_ALIVE_SECONDS = 60;
+
+    private final ExecutorService delegate;
+    /** Limits concurrent calls on virtual threads, platform pools are sized instead. */
+    private final Semaphore permits;
+    private final boolean virtual;
+
+    IntegresqlExecutor(ExecutorConfig config) {
+        ExecutorService virtualExecutor = config.virtualThreads() ? newVirtualThreadExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.delegate = virtual ? virtualExecutor : newPlatformExecutor(config.maxConcurrency());
+        this.permits = virtual ? new Semaphore(config.maxConcurrency()) : null;
+    }
+
+    /**
+     * @return true if calls run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (permits == null) {
+            delegate.execute(command);
+            return;
+        }
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Runs the blocking task on this executor.
+     *
+     * @return a future completed with the result of the task, or
+     *         exceptionally with the exception it threw
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Stops accepting calls and waits for the pending ones to finish.
+     */
+    void shutdown(long timeout, TimeUnit unit) {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(timeout, unit)) {
+                log.warnf("IntegreSQL client calls still pending after %d %s, abandoning them.", timeout, unit);
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()}
+     * reflectively, as the extension is compiled for Java 17.
+     *
+     * @return the virtual thread executor, null if the JVM does not support
+     *         virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads not available, falling back to a platform thread pool.");
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int poolSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "integresql-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                PLATFORM_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,200 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A test database leased from IntegreSQL.
+ * <p>
+ * Exposes a ready-to-use JDBC URL and credentials as well as pooled
+ * connections. Closing the lease hands the database back according to its
+ * {@link LeaseMode}: a {@link LeaseMode#CLONE} lease returns or recreates the
+ * database according to its {@link ReleaseMode} in the background, so
+ * {@link #close()} returns right away; a {@link LeaseMode#ROLLBACK} lease rolls
+ * back the transaction of {@link #connection()}.
+ * <p>
+ * If a warm-up is configured, the lease is only {@linkplain #ready() ready}
+ * once the warm-up finished in the background; {@link #connection()} waits
+ * for it. Connecting through {@link #jdbcUrl()} does not, wait for
+ * {@link #ready()} first.
+ *
+ * <pre>
+ * try (IntegresqlLease lease = leases.lease(hash);
+ *         Connection connection = lease.connection()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class IntegresqlLease implements AutoCloseable {
+
+    private final String templateHash;
+    private final TestDatabase testDatabase;
+    private final LeaseMode mode;
+    private final DataSource dataSource;
+    private final Consumer<IntegresqlLease> releaser;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final CompletableFuture<IntegresqlLease> ready = new CompletableFuture<>();
+    private volatile ReleaseMode releaseMode;
+    private Connection transaction;
+    private Connection transactionView;
+
+    IntegresqlLease(String templateHash, TestDatabase testDatabase, LeaseMode mode, ReleaseMode releaseMode,
+            DataSource dataSource, Consumer<IntegresqlLease> releaser) {
+        this.templateHash = Objects.requireNonNull(templateHash);
+        this.testDatabase = Objects.requireNonNull(testDatabase);
+        this.mode = Objects.requireNonNull(mode);
+        this.releaseMode = Objects.requireNonNull(releaseMode);
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.releaser = Objects.requireNonNull(releaser);
+    }
+
+    /**
+     * @return the hash of the template this database was cloned from
+     */
+    public String templateHash() {
+        return templateHash;
+    }
+
+    /**
+     * @return the IntegreSQL id of the test database
+     */
+    public int id() {
+        return testDatabase.id;
+    }
+
+    /**
+     * @return the test database as returned by IntegreSQL
+     */
+    public TestDatabase testDatabase() {
+        return testDatabase;
+    }
+
+    /**
+     * @return the connection settings of the test database
+     */
+    public DatabaseConfig config() {
+        return testDatabase.database.config;
+    }
+
+    public String databaseName() {
+        return config().database;
+    }
+
+    public String jdbcUrl() {
+        return config().connectionString();
+    }
+
+    public String username() {
+        return config().username;
+    }
+
+    public String password() {
+        return config().password;
+    }
+
+    public LeaseMode mode() {
+        return mode;
+    }
+
+    public ReleaseMode releaseMode() {
+        return releaseMode;
+    }
+
+    /**
+     * Changes how a {@link LeaseMode#CLONE} database is handed back on
+     * {@link #close()}, e.g. to {@link ReleaseMode#RETURN} for a test that
+     * turned out not to write. Has no effect on rollback leases.
+     */
+    public IntegresqlLease releaseMode(ReleaseMode releaseMode) {
+        this.releaseMode = Objects.requireNonNull(releaseMode);
+        return this;
+    }
+
+    /**
+     * @return completed with this lease once it is warmed up
+     */
+    public CompletionStage<IntegresqlLease> ready() {
+        return ready.minimalCompletionStage();
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    void markReady() {
+        ready.complete(this);
+    }
+
+    /**
+     * Gets a connection to the test database, once the lease is ready.
+     * <p>
+     * For a {@link LeaseMode#CLONE} lease this is a new pooled connection the
+     * caller has to close. For a {@link LeaseMode#ROLLBACK} lease it is always
+     * the same connection, running the transaction that is rolled back on
+     * {@link #close()}; committing or closing it has no effect.
+     */
+    public synchronized Connection connection() throws SQLException {
+        if (closed.get()) {
+            throw new IllegalStateException(this + " is already closed");
+        }
+        ready.join();
+        if (mode == LeaseMode.CLONE) {
+            return dataSource.getConnection();
+        }
+        if (transaction == null) {
+            Connection connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            transaction = connection;
+            transactionView = RollbackConnections.wrap(connection);
+        }
+        return transactionView;
+    }
+
+    /**
+     * Rolls back and returns the connection of a rollback lease to its pool.
+     */
+    synchronized void rollback() throws SQLException {
+        if (transaction == null) {
+            return;
+        }
+        Connection connection = transaction;
+        transaction = null;
+        transactionView = null;
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } finally {
+            connection.close();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Hands the database back according to the lease mode. Clone leases are
+     * released in the background and this returns immediately. Closing a lease
+     * more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            releaser.accept(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IntegresqlLease[" + templateHash + "#" + testDatabase.id + ", " + mode + "]";
+    }
+}
@@ -0,0 +1,32 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the {@link LeaseMode} for a test method or all tests of a class,
+ * when leasing with {@link IntegresqlLeases#lease(String, java.lang.reflect.Method)}.
+ * An annotation on the method takes precedence over one on the class.
+ *
+ * <pre>
+ * &#64;IntegresqlLeaseMode(LeaseMode.ROLLBACK)
+ * class ReadMostlyTest {
+ *     &#64;Test
+ *     void test(TestInfo info) {
+ *         try (IntegresqlLease lease = leases.lease(hash, info.getTestMethod().orElseThrow())) {
+ *             ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface IntegresqlLeaseMode {
+
+    LeaseMode value();
+}
@@ -0,0 +1,492 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import at.allaboutapps.quarkus.integresql.runtime.config.WarmupConfig;
+import io.agroal.api.AgroalDataSource;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Hands out {@link IntegresqlLease}s for test databases.
+ * <p>
+ * {@link LeaseMode#CLONE} leases get their own test database, which is
+ * released in the background once the lease is closed. Releases run on the
+ * {@link IntegresqlExecutor}; at most
+ * {@code quarkus.integresql.lease.release-queue-size} releases are pending at
+ * any time, beyond that the closing thread releases the database itself, which
+ * keeps the backlog bounded without ever dropping a release.
+ * <p>
+ * {@link LeaseMode#ROLLBACK} leases share long-lived test databases: every
+ * concurrently running test holds one of them, and on close its transaction is
+ * rolled back and the database is kept for the next rollback lease of the same
+ * template. These databases are only released on shutdown.
+ * <p>
+ * If configured, freshly leased databases are warmed up in the background
+ * (opening pooled connections, running warm-up statements and
+ * {@link LeaseWarmup} beans) before the lease is {@linkplain IntegresqlLease#ready()
+ * ready}, so the first query of a test does not pay for cold caches and
+ * connection setup. The pools of the integrations (Hibernate ORM, reactive)
+ * open their connections as well, see {@link LeasePoolWarmup}. {@link #leaseAsync(String)} completes once the lease is
+ * ready.
+ * <p>
+ * One lease at a time can be {@linkplain #activate(IntegresqlLease) activated}
+ * as the current lease, which integrations (e.g. Hibernate ORM) point the
+ * application at. Every change of the current lease fires a
+ * {@link LeaseSwitched} event.
+ */
+@ApplicationScoped
+public class IntegresqlLeases {
+
+    private static final Logger log = Logger.getLogger(IntegresqlLeases.class);
+
+    /** How long to wait for connections to close before IntegreSQL drops their databases. */
+    private static final long EVICTION_TIMEOUT_SECONDS = 10;
+
+    private final IntegresqlJavaClient client;
+    private final IntegresqlExecutor executor;
+    private final LeaseDataSources dataSources;
+    private final IntegresqlRuntimeConfig config;
+    private final Event<LeaseSwitched> leaseSwitched;
+    private final Instance<LeaseWarmup> warmups;
+    private final Instance<LeasePoolWarmup> poolWarmups;
+    private final Semaphore pendingReleases;
+    /** Releases of closed leases that did not finish yet. */
+    private final Set<CompletableFuture<Void>> releasing = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<IntegresqlLease> current = new AtomicReference<>();
+    /** All long-lived rollback databases per template hash. */
+    private final Map<String, Queue<TestDatabase>> rollbackDatabases = new ConcurrentHashMap<>();
+    /** Rollback databases currently not used by a lease, per template hash. */
+    private final Map<String, Queue<TestDatabase>> idleRollbackDatabases = new ConcurrentHashMap<>();
+    /** Databases returned with their pools kept open, per template hash. */
+    private final Map<String, Set<String>> returnedDatabases = new ConcurrentHashMap<>();
+
+    @Inject
+    public IntegresqlLeases(IntegresqlJavaClient client, IntegresqlExecutor executor, LeaseDataSources dataSources,
+            IntegresqlRuntimeConfig config, Event<LeaseSwitched> leaseSwitched, @Any Instance<LeaseWarmup> warmups,
+            @Any Instance<LeasePoolWarmup> poolWarmups) {
+        this.client = client;
+        this.executor = executor;
+        this.dataSources = dataSources;
+        this.config = config;
+        this.leaseSwitched = leaseSwitched;
+        this.warmups = warmups;
+        this.poolWarmups = poolWarmups;
+        this.pendingReleases = new Semaphore(config.lease().releaseQueueSize());
+    }
+
+    /**
+     * Leases a test database of the given (finalized) template, using the
+     * configured lease and release mode.
+     */
+    public IntegresqlLease lease(String templateHash) {
+        return lease(templateHash, config.lease().mode());
+    }
+
+    /**
+     * Leases a test database of the given (finalized) template, using the lease
+     * mode selected for the test method by {@link IntegresqlLeaseMode} on the
+     * method or its class, or the configured one if neither is annotated.
+     */
+    public IntegresqlLease lease(String templateHash, Method testMethod) {
+        return lease(templateHash, resolveMode(testMethod));
+    }
+
+    /**
+     * Leases a test database of the given (finalized) template.
+     */
+    public IntegresqlLease lease(String templateHash, LeaseMode mode) {
+        if (mode == LeaseMode.ROLLBACK) {
+            return leaseForRollback(templateHash);
+        }
+        return lease(templateHash, config.lease().releaseMode());
+    }
+
+    /**
+     * Leases a clone of the given (finalized) template.
+     *
+     * @param templateHash the hash of the template to clone from
+     * @param releaseMode  how the database is handed back when the lease is
+     *                     closed
+     */
+    public IntegresqlLease lease(String templateHash, ReleaseMode releaseMode) {
+        TestDatabase testDatabase = client.getTestDatabase(templateHash);
+        IntegresqlLease lease = new IntegresqlLease(templateHash, testDatabase, LeaseMode.CLONE, releaseMode,
+                dataSources.dataSource(testDatabase.database.config), this::onClose);
+        return warmUp(lease);
+    }
+
+    /**
+     * Leases a test database of the given (finalized) template on the
+     * {@link IntegresqlExecutor}, using the configured lease and release mode,
+     * without blocking the calling thread.
+     *
+     * @return completed once the lease is ready
+     */
+    public CompletionStage<IntegresqlLease> leaseAsync(String templateHash) {
+        return executor.supply(() -> lease(templateHash)).thenCompose(IntegresqlLease::ready);
+    }
+
+    /**
+     * Leases a clone of the given (finalized) template on the
+     * {@link IntegresqlExecutor}, without blocking the calling thread.
+     *
+     * @return completed once the lease is ready
+     */
+    public CompletionStage<IntegresqlLease> leaseAsync(String templateHash, ReleaseMode releaseMode) {
+        return executor.supply(() -> lease(templateHash, releaseMode)).thenCompose(IntegresqlLease::ready);
+    }
+
+    /**
+     * Makes the given lease the current one, which the application is pointed
+     * at until another lease is activated or this one is closed.
+     *
+     * @return the given lease
+     */
+    public IntegresqlLease activate(IntegresqlLease lease) {
+        if (lease.isClosed()) {
+            throw new IllegalStateException(lease + " is already closed");
+        }
+        IntegresqlLease previous = current.getAndSet(lease);
+        if (previous != lease) {
+            leaseSwitched.fire(new LeaseSwitched(previous, lease));
+        }
+        return lease;
+    }
+
+    /**
+     * @return the current lease, empty if none is activated
+     */
+    public Optional<IntegresqlLease> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * @return whether the given database is one of the long-lived databases
+     *         shared by {@link LeaseMode#ROLLBACK} leases
+     */
+    public boolean isRollbackDatabase(String databaseName) {
+        return rollbackDatabases.values().stream()
+                .flatMap(Queue::stream)
+                .anyMatch(testDatabase -> testDatabase.database.config.database.equals(databaseName));
+    }
+
+    /**
+     * @return the number of closed leases whose release did not finish yet
+     */
+    public int pendingReleases() {
+        return releasing.size();
+    }
+
+    /**
+     * Waits until all closed leases are released.
+     *
+     * @throws IllegalStateException if releases are still pending after the
+     *                               timeout
+     */
+    public void awaitReleases(Duration timeout) {
+        try {
+            CompletableFuture.allOf(releasing.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pending releases", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Pending releases did not finish within " + timeout, e);
+        }
+    }
+
+    /**
+     * @return the lease mode selected for the test method, see
+     *         {@link IntegresqlLeaseMode}
+     */
+    public LeaseMode resolveMode(Method testMethod) {
+        IntegresqlLeaseMode annotation = testMethod.getAnnotation(IntegresqlLeaseMode.class);
+        // Walk up enclosing classes as well, to cover nested test classes
+        for (Class<?> type = testMethod.getDeclaringClass(); annotation == null && type != null;
+                type = type.getEnclosingClass()) {
+            annotation = type.getAnnotation(IntegresqlLeaseMode.class);
+        }
+        return annotation != null ? annotation.value() : config.lease().mode();
+    }
+
+    private IntegresqlLease leaseForRollback(String templateHash) {
+        TestDatabase testDatabase = idleRollbackDatabases
+                .computeIfAbsent(templateHash, h -> new ConcurrentLinkedQueue<>())
+                .poll();
+        boolean fresh = testDatabase == null;
+        if (fresh) {
+            testDatabase = client.getTestDatabase(templateHash);
+            rollbackDatabases.computeIfAbsent(templateHash, h -> new ConcurrentLinkedQueue<>()).add(testDatabase);
+            log.debugf("Leased test database %d of %s for rollback leases", testDatabase.id, templateHash);
+        }
+        IntegresqlLease lease = new IntegresqlLease(templateHash, testDatabase, LeaseMode.ROLLBACK,
+                config.lease().releaseMode(), dataSources.dataSource(testDatabase.database.config), this::onClose);
+        if (!fresh) {
+            // Reused databases are still warm from their previous lease
+            lease.markReady();
+            return lease;
+        }
+        return warmUp(lease);
+    }
+
+    private IntegresqlLease warmUp(IntegresqlLease lease) {
+        WarmupConfig warmup = config.lease().warmup();
+        List<String> statements = warmup.statements().orElse(List.of());
+        int connections = Math.min(warmup.connections(), config.lease().maxConnections());
+        if (connections == 0 && (!statements.isEmpty() || !warmups.isUnsatisfied())) {
+            connections = 1;
+        }
+        if (connections == 0) {
+            lease.markReady();
+            return lease;
+        }
+
+        int count = connections;
+        try {
+            executor.execute(() -> {
+                try {
+                    warmUp(lease, count, statements);
+                } finally {
+                    lease.markReady();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lease.markReady();
+        }
+        return lease;
+    }
+
+    private void warmUp(IntegresqlLease lease, int count, List<String> statements) {
+        long start = System.nanoTime();
+        AgroalDataSource dataSource = dataSources.dataSource(lease.config());
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            // Hold all connections at once, so the pool actually opens that many
+            for (int i = 0; i < count; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            for (Connection connection : connections) {
+                connection.setAutoCommit(false);
+                try {
+                    for (String sql : statements) {
+                        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                            statement.execute();
+                        }
+                    }
+                    if (connection == connections.get(0)) {
+                        for (LeaseWarmup warmup : warmups) {
+                            warmup.warmUp(lease, connection);
+                        }
+                    }
+                } finally {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+            log.debugf("Warmed up %s with %d connections in %d ms", lease, count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warnf("Failed to warm up %s: %s", lease, e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debugf("Failed to close warm-up connection of %s: %s", lease, e.getMessage());
+                }
+            }
+        }
+        for (LeasePoolWarmup poolWarmup : poolWarmups) {
+            try {
+                poolWarmup.warmUp(lease, count).toCompletableFuture().join();
+            } catch (Exception e) {
+                log.warnf("Failed to warm up pools of %s: %s", lease, e.getMessage());
+            }
+        }
+    }
+
+    private void onClose(IntegresqlLease lease) {
+        if (current.compareAndSet(lease, null)) {
+            leaseSwitched.fire(new LeaseSwitched(lease, null));
+        }
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        releasing.add(released);
+        released.whenComplete((ignored, e) -> releasing.remove(released));
+        // Hand the database back once a running warm-up has finished, without
+        // blocking close(): the warm-up may be waiting for this very thread
+        lease.ready().whenComplete((ignored, e) -> {
+            if (lease.mode() == LeaseMode.ROLLBACK) {
+                rollback(lease, released);
+            } else {
+                queueRelease(lease, released);
+            }
+        });
+    }
+
+    private void rollback(IntegresqlLease lease, CompletableFuture<Void> released) {
+        try {
+            lease.rollback();
+            Queue<TestDatabase> testDatabases = rollbackDatabases.get(lease.templateHash());
+            // Unless the template was discarded in the meantime, keep the database
+            if (testDatabases != null && testDatabases.contains(lease.testDatabase())) {
+                idleRollbackDatabases.computeIfAbsent(lease.templateHash(), h -> new ConcurrentLinkedQueue<>())
+                        .add(lease.testDatabase());
+            }
+            released.complete(null);
+        } catch (SQLException e) {
+            // The state of the database is unknown now, stop reusing it
+            log.warnf("Failed to roll back %s, recreating its database: %s", lease, e.getMessage());
+            Optional.ofNullable(rollbackDatabases.get(lease.templateHash()))
+                    .ifPresent(testDatabases -> testDatabases.remove(lease.testDatabase()));
+            queueRelease(lease.releaseMode(ReleaseMode.RECREATE), released);
+        }
+    }
+
+    private void queueRelease(IntegresqlLease lease, CompletableFuture<Void> released) {
+        Supplier<CompletableFuture<Void>> task = () -> release(lease.templateHash(), lease.testDatabase(),
+                lease.releaseMode())
+                .whenComplete((ignored, e) -> released.complete(null));
+        if (!pendingReleases.tryAcquire()) {
+            // Backpressure: too many releases pending, release synchronously
+            task.get().join();
+            return;
+        }
+        try {
+            executor.execute(() -> task.get().whenComplete((ignored, e) -> pendingReleases.release()));
+        } catch (RejectedExecutionException e) {
+            // Executor already shut down, release on the calling thread
+            pendingReleases.release();
+            task.get().join();
+        }
+    }
+
+    /**
+     * Forgets the rollback databases of a template that is about to be
+     * discarded, and closes the connections to all its databases so
+     * IntegreSQL can drop them.
+     */
+    void templateDiscarded(String templateHash) {
+        idleRollbackDatabases.remove(templateHash);
+        List<CompletableFuture<Void>> evicted = new ArrayList<>();
+        Queue<TestDatabase> testDatabases = rollbackDatabases.remove(templateHash);
+        if (testDatabases != null) {
+            testDatabases.forEach(testDatabase -> evicted.add(
+                    dataSources.evict(testDatabase.database.config.database)));
+        }
+        Set<String> returned = returnedDatabases.remove(templateHash);
+        if (returned != null) {
+            returned.forEach(databaseName -> evicted.add(dataSources.evict(databaseName)));
+        }
+        awaitEvicted(evicted, templateHash);
+    }
+
+    /**
+     * Forgets all rollback and returned databases, as IntegreSQL is about to
+     * reset its tracking.
+     */
+    void trackingReset() {
+        Set<String> templateHashes = new HashSet<>(rollbackDatabases.keySet());
+        templateHashes.addAll(returnedDatabases.keySet());
+        templateHashes.forEach(this::templateDiscarded);
+    }
+
+    /**
+     * Hands the database back to IntegreSQL. A returned database is handed out
+     * again as is, so its pools are kept for the next lease; the pools of a
+     * database to recreate are closed first, and the recreate runs once they
+     * are, without blocking the releasing thread in the meantime.
+     *
+     * @return completed once the database is released, never exceptionally
+     */
+    private CompletableFuture<Void> release(String templateHash, TestDatabase testDatabase,
+            ReleaseMode releaseMode) {
+        String databaseName = testDatabase.database.config.database;
+        if (releaseMode == ReleaseMode.RETURN) {
+            returnedDatabases.computeIfAbsent(templateHash, h -> ConcurrentHashMap.newKeySet()).add(databaseName);
+            callQuietly(() -> client.returnTestDatabase(templateHash, testDatabase.id), templateHash, testDatabase);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Optional.ofNullable(returnedDatabases.get(templateHash)).ifPresent(names -> names.remove(databaseName));
+        Runnable recreate = () -> callQuietly(() -> client.recreateTestDatabase(templateHash, testDatabase.id),
+                templateHash, testDatabase);
+        // Open connections would keep IntegreSQL from dropping the database
+        CompletableFuture<Void> evicted = dataSources.evict(databaseName);
+        if (evicted.isDone()) {
+            recreate.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        // Connections close on an event loop, which must not run the recreate
+        return evicted.thenRunAsync(recreate, command -> {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                command.run();
+            }
+        });
+    }
+
+    private static void callQuietly(Runnable call, String templateHash, TestDatabase testDatabase) {
+        try {
+            call.run();
+        } catch (Exception e) {
+            log.warnf("Failed to release test database %d of %s: %s", testDatabase.id, templateHash,
+                    e.getMessage());
+        }
+    }
+
+    private static void awaitEvicted(List<CompletableFuture<Void>> evicted, String templateHash) {
+        try {
+            CompletableFuture.allOf(evicted.toArray(CompletableFuture[]::new))
+                    .get(EVICTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warnf("Connections to databases of %s still open after %d s", templateHash,
+                    EVICTION_TIMEOUT_SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void releaseRollbackDatabases() {
+        List<CompletableFuture<Void>> released = new ArrayList<>();
+        rollbackDatabases.forEach((templateHash, testDatabases) -> testDatabases
+                .forEach(testDatabase -> released.add(release(templateHash, testDatabase,
+                        config.lease().releaseMode()))));
+        rollbackDatabases.clear();
+        idleRollbackDatabases.clear();
+        returnedDatabases.clear();
+        awaitEvicted(released, "rollback leases");
+    }
+}
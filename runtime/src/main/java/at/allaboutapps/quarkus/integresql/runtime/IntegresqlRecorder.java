@@ -3,15 +3,18 @@ package at.allaboutapps.quarkus.integresql.runtime;
 import at.allaboutapps.integresql.client.IntegresqlJavaClient;
 import at.allaboutapps.integresql.config.IntegresqlClientConfig;
 import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.ShutdownContext;
 import io.quarkus.runtime.annotations.Recorder;
 import org.jboss.logging.Logger;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
- * Recorder responsible for creating the IntegreSQL client bean at runtime
- * startup.
+ * Recorder responsible for creating the IntegreSQL client bean and the
+ * executor for its blocking calls at runtime startup.
  */
 @Recorder
 public class IntegresqlRecorder {
@@ -19,7 +22,8 @@ public class IntegresqlRecorder {
     private static final Logger log = Logger.getLogger(IntegresqlRecorder.class);
 
     /**
-     * Creates a Supplier for the IntegresqlJavaClient bean.
+     * Creates a Supplier for the IntegresqlJavaClient bean, whose returned
+     * databases point at the override host and port, if set.
      * This method runs at runtime startup.
      *
      * @return A Supplier that creates the client instance.
@@ -40,14 +44,34 @@ public class IntegresqlRecorder {
                 log.infof("Overriding host to %s", overrideHost.get());
             }
 
+            // The addresses are rewritten by the client bean alone, not by the
+            // client config as well
             IntegresqlClientConfig clientSpecificConfig = IntegresqlClientConfig.customConfig(
                     baseUrl,
                     apiVersion,
                     debug,
-                    overridePort,
-                    overrideHost);
+                    Optional.empty(),
+                    Optional.empty());
 
-            return new IntegresqlJavaClient(clientSpecificConfig);
+            return new AddressRewritingClient(clientSpecificConfig, overrideHost, overridePort);
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the executor the blocking client calls run on.
+     * This method runs at runtime startup, pending calls are drained on
+     * shutdown.
+     *
+     * @return The executor instance.
+     */
+    public RuntimeValue<IntegresqlExecutor> createExecutor(IntegresqlRuntimeConfig config,
+            ShutdownContext shutdownContext) {
+        IntegresqlExecutor executor = new IntegresqlExecutor(config.executor());
+        log.debugf("Running IntegreSQL client calls on %s threads (max concurrency %d)",
+                executor.isVirtual() ? "virtual" : "platform", config.executor().maxConcurrency());
+
+        shutdownContext.addShutdownTask(() -> executor.shutdown(
+                config.executor().shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        return new RuntimeValue<>(executor);
+    }
+}
@@ -0,0 +1,347 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.IntegresqlJavaClient;
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+import at.allaboutapps.integresql.client.dto.TestDatabase;
+import at.allaboutapps.integresql.exception.TemplateAlreadyInitializedException;
+import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Template operations of the IntegreSQL client, backed by a cache of the
+ * template states observed in this JVM.
+ * <p>
+ * Once a template was finalized through this bean, asking whether it is ready
+ * or ensuring it exists is answered from memory instead of calling the
+ * IntegreSQL API again. The API is only hit on actual state changes;
+ * discarding a template or resetting the tracking invalidates the cached
+ * entries. The cache only sees calls made through this bean: resetting the
+ * tracking with the raw {@link IntegresqlJavaClient} leaves stale entries,
+ * use {@link #resetAllTracking()} instead.
+ * <p>
+ * If configured, templates initialized through this bean are post-processed
+ * right before they are finalized, see
+ * {@link at.allaboutapps.quarkus.integresql.runtime.config.TemplateConfig}.
+ * <p>
+ * Derived templates start as a copy of a finalized parent template with
+ * additional fixtures applied, so test classes sharing a schema but needing
+ * different data each get pre-seeded clones without building the schema
+ * again.
+ */
+@ApplicationScoped
+public class IntegresqlTemplates {
+
+    private static final Logger log = Logger.getLogger(IntegresqlTemplates.class);
+
+    private final IntegresqlJavaClient client;
+    private final IntegresqlExecutor executor;
+    private final IntegresqlLeases leases;
+    private final IntegresqlRuntimeConfig config;
+    private final TemplatePostProcessor postProcessor;
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> setupLocks = new ConcurrentHashMap<>();
+
+    @Inject
+    public IntegresqlTemplates(IntegresqlJavaClient client, IntegresqlExecutor executor, IntegresqlLeases leases,
+            IntegresqlRuntimeConfig config) {
+        this.client = client;
+        this.executor = executor;
+        this.leases = leases;
+        this.config = config;
+        this.postProcessor = new TemplatePostProcessor(config.template());
+    }
+
+    /**
+     * @return the last observed state of the template, empty if this JVM has
+     *         not seen the template yet
+     */
+    public Optional<TemplateState> state(String hash) {
+        return Optional.ofNullable(templates.get(hash)).map(CachedTemplate::state);
+    }
+
+    /**
+     * @return true if the template was finalized in this JVM (or found
+     *         finalized by someone else) and not discarded since, without
+     *         calling the IntegreSQL API
+     */
+    public boolean isReady(String hash) {
+        TemplateState state = state(hash).orElse(null);
+        return state == TemplateState.FINALIZED || state == TemplateState.FINALIZED_ELSEWHERE;
+    }
+
+    /**
+     * @return the template database as returned on initialization, empty if it
+     *         was not initialized through this bean
+     */
+    public Optional<TemplateDatabase> template(String hash) {
+        return Optional.ofNullable(templates.get(hash)).map(CachedTemplate::template);
+    }
+
+    /**
+     * Makes sure the template exists and is finalized. If it was already
+     * finalized in this JVM, this returns without calling IntegreSQL.
+     * Otherwise the template is initialized, set up by the given initializer
+     * and finalized. Concurrent callers for the same hash wait for a single
+     * setup to complete.
+     * <p>
+     * If IntegreSQL reports the template as already initialized (by another
+     * JVM, e.g. a parallel test fork, or before a dev mode restart), this waits
+     * up to {@code quarkus.integresql.await-finalized-timeout} for it to be
+     * finalized and skips the initializer. A template not finalized in time
+     * was abandoned (e.g. by a crashed setup): it is discarded and set up
+     * again.
+     *
+     * @throws IllegalStateException if the initializer or the post-processing
+     *                               fails, the template is discarded in that
+     *                               case
+     */
+    public void ensureTemplate(String hash, TemplateInitializer initializer) {
+        if (isReady(hash)) {
+            return;
+        }
+
+        ReentrantLock lock = lockSetup(hash);
+        try {
+            // Another thread might have finished the setup while we waited
+            if (isReady(hash)) {
+                return;
+            }
+
+            TemplateDatabase template = null;
+            for (int attempt = 1; template == null; attempt++) {
+                try {
+                    template = initializeTemplate(hash);
+                } catch (TemplateAlreadyInitializedException e) {
+                    if (awaitFinalizedElsewhere(hash)) {
+                        log.debugf("Template %s was already set up elsewhere, using it as is", hash);
+                        templates.put(hash, new CachedTemplate(TemplateState.FINALIZED_ELSEWHERE, null));
+                        return;
+                    }
+                    if (attempt > 1) {
+                        throw new IllegalStateException("Template " + hash
+                                + " was initialized elsewhere and not finalized within "
+                                + config.awaitFinalizedTimeout());
+                    }
+                    log.warnf("Template %s was initialized elsewhere but not finalized within %s,"
+                            + " discarding it and setting it up again", hash, config.awaitFinalizedTimeout());
+                    discardQuietly(hash);
+                }
+            }
+            try {
+                initializer.initialize(template);
+                finalizeTemplate(hash);
+            } catch (Exception e) {
+                log.errorf("Setting up template %s failed, discarding it: %s", hash, e.getMessage());
+                discardQuietly(hash);
+                throw new IllegalStateException("Failed to set up template " + hash, e);
+            }
+        } finally {
+            // Setup is over (finalized or discarded), the lock is no longer needed
+            setupLocks.remove(hash, lock);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes sure the template derived from the given parent with the given
+     * fixtures exists and is finalized. The derived template is a copy of the
+     * parent, with the fixtures applied by the given initializer, and is
+     * cached under {@link #derivedHash(String, String)}.
+     *
+     * <p>
+     * A parent finalized elsewhere has no template database known to this
+     * bean; a test database of the parent, which IntegreSQL clones from the
+     * template, is leased and copied instead, and returned untouched.
+     *
+     * @param parentHash  the hash of a template that is {@linkplain #isReady(String)
+     *                    ready}, e.g. after {@link #ensureTemplate(String, TemplateInitializer)}
+     * @param fixturesKey identifies the fixtures, e.g. the name of the fixture
+     *                    set or a hash of its content
+     * @return the hash of the derived template
+     * @throws IllegalStateException if the parent is not ready, or copying it
+     *                               or applying the fixtures fails
+     */
+    public String ensureDerivedTemplate(String parentHash, String fixturesKey, TemplateInitializer fixtures) {
+        String hash = derivedHash(parentHash, fixturesKey);
+        if (isReady(hash)) {
+            return hash;
+        }
+        if (!isReady(parentHash)) {
+            throw new IllegalStateException("Parent template " + parentHash + " is not finalized");
+        }
+        Optional<TemplateDatabase> parent = template(parentHash);
+
+        ensureTemplate(hash, template -> {
+            if (parent.isPresent()) {
+                TemplateClones.copy(parent.get().database.config, template.database.config);
+            } else {
+                copyTestDatabase(parentHash, template);
+            }
+            fixtures.initialize(template);
+        });
+        return hash;
+    }
+
+    /**
+     * Like {@link #ensureDerivedTemplate(String, String, TemplateInitializer)},
+     * but runs on the {@link IntegresqlExecutor}, so templates derived from
+     * the same parent are built concurrently.
+     */
+    public CompletionStage<String> ensureDerivedTemplateAsync(String parentHash, String fixturesKey,
+            TemplateInitializer fixtures) {
+        return executor.supply(() -> ensureDerivedTemplate(parentHash, fixturesKey, fixtures));
+    }
+
+    /**
+     * @return the hash of the template derived from the given parent with the
+     *         given fixtures
+     */
+    public String derivedHash(String parentHash, String fixturesKey) {
+        return TemplateClones.derivedHash(parentHash, fixturesKey);
+    }
+
+    /**
+     * Initializes the template in IntegreSQL.
+     */
+    public TemplateDatabase initializeTemplate(String hash) {
+        TemplateDatabase template = client.initializeTemplate(hash);
+        templates.put(hash, new CachedTemplate(TemplateState.INITIALIZING, template));
+        return template;
+    }
+
+    /**
+     * Post-processes (if configured and the template was initialized through
+     * this bean) and finalizes the template. Does nothing if it was already
+     * finalized in this JVM.
+     */
+    public void finalizeTemplate(String hash) {
+        if (isReady(hash)) {
+            return;
+        }
+        CachedTemplate initialized = templates.get(hash);
+        if (initialized != null && initialized.state() == TemplateState.INITIALIZING && initialized.template() != null) {
+            try {
+                postProcessor.process(hash, initialized.template().database.config);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to post-process template " + hash, e);
+            }
+        }
+        client.finalizeTemplate(hash);
+        templates.compute(hash, (h, cached) -> new CachedTemplate(TemplateState.FINALIZED,
+                cached != null ? cached.template() : null));
+    }
+
+    /**
+     * Discards the template and invalidates its cached state. Rollback
+     * databases of the template are dropped along with it.
+     */
+    public void discardTemplate(String hash) {
+        leases.templateDiscarded(hash);
+        try {
+            client.discardTemplate(hash);
+        } finally {
+            templates.put(hash, new CachedTemplate(TemplateState.DISCARDED, null));
+            setupLocks.computeIfPresent(hash, (h, lock) -> lock.isLocked() ? lock : null);
+        }
+    }
+
+    /**
+     * Resets all tracking in IntegreSQL and clears the cache.
+     */
+    public void resetAllTracking() {
+        leases.trackingReset();
+        try {
+            client.resetAllTracking();
+        } finally {
+            templates.clear();
+        }
+    }
+
+    /**
+     * Waits for a template initialized elsewhere to be finalized, by leasing
+     * (and returning) a test database: IntegreSQL only hands one out once the
+     * template is finalized.
+     *
+     * @return true if the template was finalized in time
+     */
+    private boolean awaitFinalizedElsewhere(String hash) {
+        Duration timeout = config.awaitFinalizedTimeout();
+        CompletableFuture<TestDatabase> probe = executor.supply(() -> client.getTestDatabase(hash));
+        try {
+            TestDatabase testDatabase = probe.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            client.returnTestDatabase(hash, testDatabase.id);
+            return true;
+        } catch (TimeoutException e) {
+            // Hand back the database should the template get finalized after all
+            probe.thenAccept(testDatabase -> returnQuietly(hash, testDatabase));
+            return false;
+        } catch (ExecutionException e) {
+            log.debugf("Template %s initialized elsewhere is not usable: %s", hash, e.getCause().getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for template " + hash, e);
+        }
+    }
+
+    /**
+     * Copies a test database of the parent into the template, for parents
+     * whose template database is unknown to this bean.
+     */
+    private void copyTestDatabase(String parentHash, TemplateDatabase template) throws SQLException {
+        TestDatabase source = client.getTestDatabase(parentHash);
+        try {
+            TemplateClones.copy(source.database.config, template.database.config);
+        } finally {
+            returnQuietly(parentHash, source);
+        }
+    }
+
+    private void returnQuietly(String hash, TestDatabase testDatabase) {
+        try {
+            client.returnTestDatabase(hash, testDatabase.id);
+        } catch (Exception e) {
+            log.debugf("Failed to return probe database %d of %s: %s", testDatabase.id, hash, e.getMessage());
+        }
+    }
+
+    /**
+     * Locks the setup of the template. Locks are removed once a setup is over,
+     * so after locking, make sure the lock is still the registered one.
+     */
+    private ReentrantLock lockSetup(String hash) {
+        while (true) {
+            ReentrantLock lock = setupLocks.computeIfAbsent(hash, h -> new ReentrantLock());
+            lock.lock();
+            if (setupLocks.get(hash) == lock) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void discardQuietly(String hash) {
+        try {
+            discardTemplate(hash);
+        } catch (Exception e) {
+            log.warnf("Failed to discard template %s: %s", hash, e.getMessage());
+        }
+    }
+
+    private record CachedTemplate(TemplateState state, TemplateDatabase template) {
+    }
+}
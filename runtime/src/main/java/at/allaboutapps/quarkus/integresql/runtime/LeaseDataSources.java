@@ -0,0 +1,165 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+import io.agroal.api.transaction.TransactionIntegration;
+import io.agroal.narayana.NarayanaTransactionIntegration;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Agroal connection pools for leased test databases, keyed by database name.
+ * <p>
+ * Pools are evicted whenever IntegreSQL is about to drop their database, as
+ * open connections would keep it from doing so: when a
+ * {@link LeaseMode#CLONE} lease recreates its database, or when the template
+ * is discarded. Databases returned unchanged are handed out again as they
+ * are, so their pools stay open for the next lease. In between, connections
+ * idle for longer than {@code quarkus.integresql.lease.idle-timeout} are
+ * closed. Other pools of leased databases (e.g. reactive ones) close along
+ * with them by registering an {@linkplain #addEvictionListener(Function)
+ * eviction listener}.
+ * <p>
+ * Connections of the lease itself never take part in JTA transactions: a
+ * {@link LeaseMode#ROLLBACK} lease runs its own transaction on them. Code
+ * that expects container-managed transactions, like Hibernate ORM sessions,
+ * uses the separate {@linkplain #transactionalDataSource(String)
+ * transactional pools} instead, which enlist with the current transaction
+ * just like the pool of a Quarkus datasource.
+ */
+@ApplicationScoped
+public class LeaseDataSources {
+
+    private static final Logger log = Logger.getLogger(LeaseDataSources.class);
+
+    private final IntegresqlRuntimeConfig config;
+    private final TransactionManager transactionManager;
+    private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+    private final Map<String, AgroalDataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, AgroalDataSource> transactionalDataSources = new ConcurrentHashMap<>();
+    private final Map<String, DatabaseConfig> databases = new ConcurrentHashMap<>();
+    private final List<Function<String, CompletionStage<?>>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public LeaseDataSources(IntegresqlRuntimeConfig config, TransactionManager transactionManager,
+            TransactionSynchronizationRegistry transactionSynchronizationRegistry) {
+        this.config = config;
+        this.transactionManager = transactionManager;
+        this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
+
+    /**
+     * @return the pool for the given database, created on first use
+     */
+    public AgroalDataSource dataSource(DatabaseConfig databaseConfig) {
+        databases.put(databaseConfig.database, databaseConfig);
+        return dataSources.computeIfAbsent(databaseConfig.database, name -> create(databaseConfig, false));
+    }
+
+    /**
+     * @return the pool for the given database, (re-)created if needed, empty
+     *         if the database was never leased
+     */
+    public Optional<AgroalDataSource> dataSource(String databaseName) {
+        return Optional.ofNullable(databases.get(databaseName)).map(this::dataSource);
+    }
+
+    /**
+     * @return the JTA-integrated pool for the given database, (re-)created if
+     *         needed, empty if the database was never leased
+     */
+    public Optional<AgroalDataSource> transactionalDataSource(String databaseName) {
+        return Optional.ofNullable(databases.get(databaseName))
+                .map(databaseConfig -> transactionalDataSources.computeIfAbsent(databaseName,
+                        name -> create(databaseConfig, true)));
+    }
+
+    /**
+     * Registers a listener called with the name of a database whenever its
+     * connections have to be closed, before the database is dropped. The
+     * listener returns a stage completed once its connections are closed.
+     */
+    public void addEvictionListener(Function<String, CompletionStage<?>> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * Closes the pools of the given database, if any, and notifies the
+     * eviction listeners, without waiting for them.
+     *
+     * @return completed once all connections to the database are closed,
+     *         never exceptionally
+     */
+    public CompletableFuture<Void> evict(String databaseName) {
+        for (Map<String, AgroalDataSource> pools : List.of(dataSources, transactionalDataSources)) {
+            AgroalDataSource dataSource = pools.remove(databaseName);
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+        List<CompletableFuture<?>> closed = new ArrayList<>();
+        for (Function<String, CompletionStage<?>> listener : evictionListeners) {
+            try {
+                closed.add(listener.apply(databaseName).toCompletableFuture().exceptionally(e -> {
+                    log.warnf("Failed to close connections to %s: %s", databaseName, e.getMessage());
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                log.warnf("Failed to close connections to %s: %s", databaseName, e.getMessage());
+            }
+        }
+        return CompletableFuture.allOf(closed.toArray(CompletableFuture[]::new));
+    }
+
+    private AgroalDataSource create(DatabaseConfig databaseConfig, boolean transactional) {
+        AgroalDataSourceConfigurationSupplier configuration = new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration(pool -> pool
+                        .transactionIntegration(transactional
+                                ? new NarayanaTransactionIntegration(transactionManager,
+                                        transactionSynchronizationRegistry)
+                                : TransactionIntegration.none())
+                        .initialSize(0)
+                        .minSize(0)
+                        .maxSize(config.lease().maxConnections())
+                        .reapTimeout(config.lease().idleTimeout())
+                        .connectionFactoryConfiguration(factory -> factory
+                                .jdbcUrl(databaseConfig.connectionString())
+                                .principal(new NamePrincipal(databaseConfig.username))
+                                .credential(new SimplePassword(databaseConfig.password))));
+        try {
+            log.debugf("Creating %sconnection pool for leased database %s", transactional ? "transactional " : "",
+                    databaseConfig.database);
+            return AgroalDataSource.from(configuration);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create connection pool for " + databaseConfig.database, e);
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        Set<String> names = new HashSet<>(dataSources.keySet());
+        names.addAll(transactionalDataSources.keySet());
+        names.forEach(this::evict);
+    }
+}
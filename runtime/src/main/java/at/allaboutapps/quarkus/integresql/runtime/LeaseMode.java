@@ -0,0 +1,29 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+/**
+ * How a test is isolated from the other tests using the same template.
+ */
+public enum LeaseMode {
+    /**
+     * Every lease gets its own clone of the template database, which is
+     * returned or recreated when the lease is closed. Full isolation, at the
+     * cost of a clone and a recreate per lease.
+     */
+    CLONE,
+    /**
+     * Leases share a long-lived test database per concurrently running test.
+     * Each lease runs in a transaction on {@link IntegresqlLease#connection()}
+     * that is rolled back when the lease is closed. Much cheaper, but only
+     * isolates changes made through that connection.
+     * <p>
+     * Hibernate ORM sessions use that connection only while the lease is the
+     * {@linkplain IntegresqlLeases#activate(IntegresqlLease) current} one; a
+     * session still bound to the database after another lease was activated
+     * fails instead of writing past the transaction. Reactive pools cannot
+     * share a JDBC connection at all, so
+     * {@link at.allaboutapps.quarkus.integresql.runtime.reactive.LeasePools}
+     * refuses rollback leases. Any other connection to the database (e.g.
+     * {@link IntegresqlLease#jdbcUrl()}) is not isolated.
+     */
+    ROLLBACK
+}
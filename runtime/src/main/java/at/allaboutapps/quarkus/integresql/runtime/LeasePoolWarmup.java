@@ -0,0 +1,20 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Opens connections of a further pool of a freshly leased database during
+ * its warm-up, for integrations keeping pools of their own (e.g. the
+ * transactional pools of Hibernate ORM or the reactive pools). Unlike
+ * {@link LeaseWarmup}, which runs statements on the connections of the lease,
+ * beans implementing this interface are registered by the extension itself.
+ */
+public interface LeasePoolWarmup {
+
+    /**
+     * Opens up to the given number of connections of the pool.
+     *
+     * @return completed once the connections are open and back in the pool
+     */
+    CompletionStage<Void> warmUp(IntegresqlLease lease, int connections);
+}
@@ -0,0 +1,35 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import java.util.Optional;
+
+/**
+ * CDI event fired synchronously whenever the current lease of
+ * {@link IntegresqlLeases} changes, i.e. when a lease is activated or the
+ * current lease is closed. Integrations use it to follow the current lease,
+ * e.g. to reset caches holding data of the previous database.
+ */
+public final class LeaseSwitched {
+
+    private final IntegresqlLease previous;
+    private final IntegresqlLease current;
+
+    LeaseSwitched(IntegresqlLease previous, IntegresqlLease current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * @return the lease that was current before, empty if there was none
+     */
+    public Optional<IntegresqlLease> previous() {
+        return Optional.ofNullable(previous);
+    }
+
+    /**
+     * @return the lease that is current now, empty if the application is back
+     *         on its default database
+     */
+    public Optional<IntegresqlLease> current() {
+        return Optional.ofNullable(current);
+    }
+}
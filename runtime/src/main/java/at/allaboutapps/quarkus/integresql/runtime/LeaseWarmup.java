@@ -0,0 +1,27 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import java.sql.Connection;
+
+/**
+ * Warms up a freshly leased database before the lease is ready, e.g. by
+ * running the queries of the tests once. Beans implementing this interface
+ * are called in the background with one of the pooled connections of the
+ * lease, in a transaction that is rolled back afterwards.
+ *
+ * <pre>
+ * &#64;ApplicationScoped
+ * class PilotWarmup implements LeaseWarmup {
+ *     &#64;Override
+ *     public void warmUp(IntegresqlLease lease, Connection connection) throws Exception {
+ *         try (Statement statement = connection.createStatement()) {
+ *             statement.execute("SELECT * FROM pilots WHERE id = 1");
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+@FunctionalInterface
+public interface LeaseWarmup {
+
+    void warmUp(IntegresqlLease lease, Connection connection) throws Exception;
+}
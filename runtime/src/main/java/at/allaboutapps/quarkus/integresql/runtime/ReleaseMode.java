@@ -0,0 +1,18 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+/**
+ * How a leased test database is handed back to IntegreSQL when its
+ * {@link IntegresqlLease} is closed.
+ */
+public enum ReleaseMode {
+    /**
+     * Return the database to the pool as-is. Only safe if the test did not
+     * modify it.
+     */
+    RETURN,
+    /**
+     * Let IntegreSQL recreate the database from its template before it is
+     * handed out again.
+     */
+    RECREATE
+}
@@ -0,0 +1,56 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Wraps the connection of a {@link LeaseMode#ROLLBACK} lease, so code under
+ * test cannot end the surrounding transaction or get hold of the connection
+ * behind it: {@code commit()}, {@code rollback()}, {@code setAutoCommit(..)},
+ * {@code close()} and {@code abort(..)} are ignored, {@code unwrap(..)} only
+ * unwraps to the wrapper itself, everything else is passed through. Rolling
+ * back to a savepoint is allowed. The transaction is rolled back when the
+ * lease is closed.
+ */
+final class RollbackConnections {
+
+    private RollbackConnections() {
+        // Prevent instantiation
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                RollbackConnections.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "commit":
+                        case "setAutoCommit":
+                        case "close":
+                        case "abort":
+                            return null;
+                        case "rollback":
+                            if (args == null) {
+                                return null;
+                            }
+                            break;
+                        case "isWrapperFor":
+                            return ((Class<?>) args[0]).isInstance(proxy);
+                        case "unwrap":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                            throw new SQLException("Connection of a rollback lease cannot be unwrapped to " + args[0]);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
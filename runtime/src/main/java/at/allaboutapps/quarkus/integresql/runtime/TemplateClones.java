@@ -0,0 +1,92 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import org.jboss.logging.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+
+/**
+ * Copies a finalized template (or a test database cloned from it) into a
+ * freshly initialized one on the PostgreSQL server, for derived templates.
+ * <p>
+ * The initialized (empty) database is dropped and created again from the
+ * parent with {@code CREATE DATABASE ... TEMPLATE}, through the maintenance
+ * database of the server. PostgreSQL refuses to copy a database that has
+ * open connections, which happens while IntegreSQL or another test touches
+ * the parent, so the copy is retried a few times.
+ */
+final class TemplateClones {
+
+    private static final Logger log = Logger.getLogger(TemplateClones.class);
+
+    private static final String MAINTENANCE_DATABASE = "postgres";
+    /** SQL state of "source database is being accessed by other users". */
+    private static final String OBJECT_IN_USE = "55006";
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long RETRY_INTERVAL_MILLIS = 50;
+
+    private TemplateClones() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return the hash of the template derived from the given parent with the
+     *         given fixtures
+     */
+    static String derivedHash(String parentHash, String fixturesKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(parentHash.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fixturesKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Replaces the target database with a copy of the parent database.
+     */
+    static void copy(DatabaseConfig parent, DatabaseConfig target) throws SQLException {
+        String url = "jdbc:postgresql://" + target.host + ":" + target.port + "/" + MAINTENANCE_DATABASE;
+        try (Connection connection = DriverManager.getConnection(url, target.username, target.password);
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + quote(target.database));
+            for (int attempt = 1;; attempt++) {
+                try {
+                    statement.execute("CREATE DATABASE " + quote(target.database) + " TEMPLATE "
+                            + quote(parent.database) + " OWNER " + quote(target.username));
+                    log.debugf("Copied template database %s to %s", parent.database, target.database);
+                    return;
+                } catch (SQLException e) {
+                    if (!OBJECT_IN_USE.equals(e.getSQLState()) || attempt >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debugf("Template database %s in use, retrying copy: %s", parent.database, e.getMessage());
+                    sleep(RETRY_INTERVAL_MILLIS * attempt);
+                }
+            }
+        }
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while copying template database", e);
+        }
+    }
+}
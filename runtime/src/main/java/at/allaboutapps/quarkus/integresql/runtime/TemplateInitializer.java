@@ -0,0 +1,19 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.dto.TemplateDatabase;
+
+/**
+ * Sets up a freshly initialized template database, e.g. by running the schema
+ * migrations, before it is finalized.
+ */
+@FunctionalInterface
+public interface TemplateInitializer {
+
+    /**
+     * @param template the template database, its connection settings already
+     *                 point at the address reachable from this JVM
+     * @throws Exception if the setup fails, the template is discarded in that
+     *                   case
+     */
+    void initialize(TemplateDatabase template) throws Exception;
+}
@@ -0,0 +1,172 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.config.TemplateConfig;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tunes a template database for throw-away test data right before it is
+ * finalized, see {@link TemplateConfig}.
+ * <p>
+ * PostgreSQL does not allow a permanent table to reference an unlogged one, so
+ * tables are switched to {@code UNLOGGED} starting with the ones referencing
+ * others. Tables that are referenced by a table staying permanent (excluded,
+ * or part of a reference cycle) stay permanent as well. Failing statements are
+ * logged and skipped, the template is usable either way.
+ */
+final class TemplatePostProcessor {
+
+    private static final Logger log = Logger.getLogger(TemplatePostProcessor.class);
+
+    private static final String TABLES_QUERY = """
+            SELECT c.oid, n.nspname, c.relname, quote_ident(n.nspname) || '.' || quote_ident(c.relname), c.relpersistence
+            FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE c.relkind = 'r'
+              AND n.nspname NOT IN ('pg_catalog', 'information_schema')
+              AND n.nspname NOT LIKE 'pg\\_toast%'
+              AND n.nspname NOT LIKE 'pg\\_temp%'
+            """;
+    private static final String FOREIGN_KEYS_QUERY = """
+            SELECT conrelid, confrelid, quote_ident(conname), condeferred
+            FROM pg_constraint
+            WHERE contype = 'f'
+            """;
+
+    private final TemplateConfig config;
+
+    TemplatePostProcessor(TemplateConfig config) {
+        this.config = config;
+    }
+
+    boolean isEnabled() {
+        return config.unloggedTables() || config.deferrableForeignKeys();
+    }
+
+    void process(String hash, DatabaseConfig database) throws SQLException {
+        if (!isEnabled()) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(database.connectionString(), database.username,
+                database.password);
+                Statement statement = connection.createStatement()) {
+            Map<Long, Table> tables = new LinkedHashMap<>();
+            try (ResultSet rs = statement.executeQuery(TABLES_QUERY)) {
+                while (rs.next()) {
+                    Table table = new Table(rs.getString(4), rs.getString(5).equals("u"),
+                            isSelected(rs.getString(2), rs.getString(3)));
+                    tables.put(rs.getLong(1), table);
+                }
+            }
+            List<ForeignKey> foreignKeys = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(FOREIGN_KEYS_QUERY)) {
+                while (rs.next()) {
+                    Table table = tables.get(rs.getLong(1));
+                    Table referenced = tables.get(rs.getLong(2));
+                    if (table != null && referenced != null) {
+                        foreignKeys.add(new ForeignKey(table, referenced, rs.getString(3), rs.getBoolean(4)));
+                    }
+                }
+            }
+
+            if (config.deferrableForeignKeys()) {
+                deferForeignKeys(hash, statement, foreignKeys);
+            }
+            if (config.unloggedTables()) {
+                setUnlogged(hash, statement, tables.values(), foreignKeys);
+            }
+        }
+    }
+
+    private void deferForeignKeys(String hash, Statement statement, List<ForeignKey> foreignKeys) {
+        int count = 0;
+        for (ForeignKey foreignKey : foreignKeys) {
+            if (foreignKey.table().selected() && !foreignKey.deferred()) {
+                count += execute(statement, "ALTER TABLE " + foreignKey.table().name() + " ALTER CONSTRAINT "
+                        + foreignKey.name() + " DEFERRABLE INITIALLY DEFERRED");
+            }
+        }
+        log.debugf("Made %d foreign keys of template %s deferrable", count, hash);
+    }
+
+    private void setUnlogged(String hash, Statement statement, Iterable<Table> tables,
+            List<ForeignKey> foreignKeys) {
+        Set<Table> pending = new HashSet<>();
+        for (Table table : tables) {
+            if (table.selected() && !table.unlogged()) {
+                pending.add(table);
+            }
+        }
+
+        // A table referenced by a table staying permanent has to stay permanent
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (ForeignKey foreignKey : foreignKeys) {
+                if (!foreignKey.table().unlogged() && !pending.contains(foreignKey.table())
+                        && pending.remove(foreignKey.referenced())) {
+                    changed = true;
+                }
+            }
+        }
+
+        // Referencing tables first, self-references are switched together
+        int count = 0;
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (Table table : List.copyOf(pending)) {
+                boolean referencedByPending = foreignKeys.stream()
+                        .anyMatch(fk -> fk.referenced() == table && fk.table() != table && pending.contains(fk.table()));
+                if (!referencedByPending) {
+                    pending.remove(table);
+                    count += execute(statement, "ALTER TABLE " + table.name() + " SET UNLOGGED");
+                    changed = true;
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.warnf("Tables of template %s reference each other and stay logged: %s", hash,
+                    pending.stream().map(Table::name).sorted().toList());
+        }
+        log.debugf("Switched %d tables of template %s to UNLOGGED", count, hash);
+    }
+
+    private boolean isSelected(String schema, String table) {
+        String qualified = schema + "." + table;
+        boolean included = config.includeTables()
+                .map(names -> names.contains(table) || names.contains(qualified))
+                .orElse(true);
+        boolean excluded = config.excludeTables()
+                .map(names -> names.contains(table) || names.contains(qualified))
+                .orElse(false);
+        return included && !excluded;
+    }
+
+    private static int execute(Statement statement, String sql) {
+        try {
+            statement.execute(sql);
+            return 1;
+        } catch (SQLException e) {
+            log.warnf("Template post-processing statement failed, skipping it: %s: %s", sql, e.getMessage());
+            return 0;
+        }
+    }
+
+    private record Table(String name, boolean unlogged, boolean selected) {
+    }
+
+    private record ForeignKey(Table table, Table referenced, String name, boolean deferred) {
+    }
+}
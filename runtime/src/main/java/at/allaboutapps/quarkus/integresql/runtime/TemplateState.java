@@ -0,0 +1,26 @@
+package at.allaboutapps.quarkus.integresql.runtime;
+
+/**
+ * State of a template database as last observed by {@link IntegresqlTemplates}.
+ */
+public enum TemplateState {
+    /**
+     * The template was initialized and is being set up, test databases cannot
+     * be leased from it yet.
+     */
+    INITIALIZING,
+    /**
+     * The template was finalized, test databases can be leased from it.
+     */
+    FINALIZED,
+    /**
+     * The template was initialized and finalized by someone else (another
+     * JVM, or this one before a dev mode restart), verified by leasing a test
+     * database from it.
+     */
+    FINALIZED_ELSEWHERE,
+    /**
+     * The template was discarded and must be initialized again before use.
+     */
+    DISCARDED
+}
@@ -0,0 +1,32 @@
+package at.allaboutapps.quarkus.integresql.runtime.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the executor running the blocking IntegreSQL client calls.
+ */
+public interface ExecutorConfig {
+
+    /**
+     * Whether to run the blocking calls on virtual threads. Only takes effect
+     * on Java 21+, older JVMs always use a platform thread pool.
+     */
+    @WithDefault("true")
+    boolean virtualThreads();
+
+    /**
+     * Maximum number of client calls running at the same time. Further calls
+     * wait for a running one to finish. Without virtual threads, this is the
+     * size of the platform thread pool.
+     */
+    @WithDefault("256")
+    int maxConcurrency();
+
+    /**
+     * How long to wait for pending calls (e.g. lease releases) on shutdown.
+     */
+    @WithDefault("30S")
+    Duration shutdownTimeout();
+}
@@ -45,6 +45,8 @@ public interface IntegresqlRuntimeConfig {
      * Override the port the IntegreSQL client uses to connect to the PostgreSQL
      * server.
      * If not set, the default port will be used (5432).
+     * The Dev Service sets this to the port PostgreSQL is reachable on from
+     * the application.
      */
     Optional<Integer> overridePort();
 
@@ -52,6 +54,37 @@ public interface IntegresqlRuntimeConfig {
      * Override the host the IntegreSQL client uses to connect to the PostgreSQL
      * server.
      * If not set, the default host will be used (localhost).
+     * The Dev Service sets this to the host PostgreSQL is reachable on from
+     * the application.
      */
     Optional<String> overrideHost();
+
+    /**
+     * How long to wait for a template initialized elsewhere (by another JVM,
+     * or by this one before a restart) to be finalized. A template not
+     * finalized in time is considered abandoned, e.g. by a crashed setup, and
+     * is discarded and set up again.
+     */
+    @WithDefault("60S")
+    Duration awaitFinalizedTimeout();
+
+    /**
+     * Configuration of the test database leases.
+     */
+    LeaseConfig lease();
+
+    /**
+     * Configuration of the post-processing of template databases.
+     */
+    TemplateConfig template();
+
+    /**
+     * Configuration of the reactive pools for leased databases.
+     */
+    ReactiveConfig reactive();
+
+    /**
+     * Configuration of the executor running the blocking client calls.
+     */
+    ExecutorConfig executor();
 }
\ No newline at end of file
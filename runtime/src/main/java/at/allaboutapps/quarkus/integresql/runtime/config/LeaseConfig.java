@@ -0,0 +1,57 @@
+package at.allaboutapps.quarkus.integresql.runtime.config;
+
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.ReleaseMode;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the test database leases handed out by
+ * {@link at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases}.
+ */
+public interface LeaseConfig {
+
+    /**
+     * How leases isolate tests, unless a different mode is requested for the
+     * lease or selected with
+     * {@link at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeaseMode}.
+     */
+    @WithDefault("clone")
+    LeaseMode mode();
+
+    /**
+     * How a lease hands its database back to IntegreSQL when it is closed,
+     * unless a different mode is requested for the lease.
+     */
+    @WithDefault("recreate")
+    ReleaseMode releaseMode();
+
+    /**
+     * Maximum number of closed leases being released in the background. Once
+     * the limit is reached, {@code close()} releases the database on the
+     * calling thread.
+     */
+    @WithDefault("64")
+    int releaseQueueSize();
+
+    /**
+     * Maximum number of pooled connections per leased database, used by
+     * {@code IntegresqlLease#connection()}.
+     */
+    @WithDefault("5")
+    int maxConnections();
+
+    /**
+     * How long a pooled connection to a leased database may stay idle before
+     * it is closed. Idle connections keep IntegreSQL from dropping the
+     * database and count against the connection limit of the server.
+     */
+    @WithDefault("30S")
+    Duration idleTimeout();
+
+    /**
+     * Warm-up of freshly leased databases.
+     */
+    WarmupConfig warmup();
+}
@@ -0,0 +1,38 @@
+package at.allaboutapps.quarkus.integresql.runtime.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the reactive PostgreSQL pools for leased databases, used
+ * if the {@code quarkus-reactive-pg-client} extension is present.
+ */
+public interface ReactiveConfig {
+
+    /**
+     * Maximum number of pools kept open for recently leased databases. Beyond
+     * that, the least recently used pool is closed.
+     */
+    @WithDefault("4")
+    int maxPools();
+
+    /**
+     * Maximum number of connections per pool.
+     */
+    @WithDefault("5")
+    int maxSize();
+
+    /**
+     * How long the pool of a database is kept open after its last lease was
+     * closed. Pools of open leases are never closed for being unused.
+     */
+    @WithDefault("60S")
+    Duration poolIdleTimeout();
+
+    /**
+     * How long a connection of a pool is kept open while it is idle.
+     */
+    @WithDefault("30S")
+    Duration connectionIdleTimeout();
+}
@@ -0,0 +1,48 @@
+package at.allaboutapps.quarkus.integresql.runtime.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Configuration of the post-processing applied to a template database right
+ * before it is finalized. Every test database cloned from the template
+ * inherits these settings.
+ */
+public interface TemplateConfig {
+
+    /**
+     * Whether to turn the tables of the template into {@code UNLOGGED} tables,
+     * which skips the write-ahead log on every write to a test database. Data
+     * of unlogged tables is lost on a crash of the server, which test data
+     * does not care about.
+     * This is set to false by default.
+     */
+    @WithDefault("false")
+    boolean unloggedTables();
+
+    /**
+     * Whether to make the foreign keys of the template
+     * {@code DEFERRABLE INITIALLY DEFERRED}, so they are checked on commit
+     * instead of after every statement and fixtures can be written in any
+     * order.
+     * This is set to false by default.
+     */
+    @WithDefault("false")
+    boolean deferrableForeignKeys();
+
+    /**
+     * Tables to post-process, either by name or qualified with their schema
+     * ({@code schema.table}). If not set, all tables outside the system
+     * schemas are post-processed.
+     */
+    Optional<List<String>> includeTables();
+
+    /**
+     * Tables to leave untouched, either by name or qualified with their
+     * schema ({@code schema.table}). Takes precedence over
+     * {@link #includeTables()}.
+     */
+    Optional<List<String>> excludeTables();
+}
@@ -0,0 +1,34 @@
+package at.allaboutapps.quarkus.integresql.runtime.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Configuration of the warm-up of leased databases, which runs in the
+ * background before a lease is ready.
+ */
+public interface WarmupConfig {
+
+    /**
+     * Number of pooled connections to open to a freshly leased database, at
+     * most {@code quarkus.integresql.lease.max-connections}. The transactional
+     * pool used by Hibernate ORM and the reactive pool, if in use, open as
+     * many connections as well. If 0 (the
+     * default), a single connection is opened only if warm-up statements or
+     * {@link at.allaboutapps.quarkus.integresql.runtime.LeaseWarmup} beans are
+     * present, otherwise the lease is ready right away.
+     */
+    @WithDefault("0")
+    int connections();
+
+    /**
+     * Statements run as prepared statements on every warm-up connection, e.g.
+     * the queries of the tests, to load catalog and relation caches. They run
+     * in a transaction that is rolled back afterwards. Use the indexed form
+     * ({@code quarkus.integresql.lease.warmup.statements[0]=...}) for
+     * statements containing commas.
+     */
+    Optional<List<String>> statements();
+}
@@ -0,0 +1,34 @@
+package at.allaboutapps.quarkus.integresql.runtime.orm;
+
+import at.allaboutapps.quarkus.integresql.runtime.LeaseSwitched;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.jboss.logging.Logger;
+
+/**
+ * Clears the second-level and query caches of the default persistence unit
+ * whenever the current lease changes, as cached entries belong to the
+ * previous database.
+ */
+@ApplicationScoped
+public class IntegresqlOrmCacheReset {
+
+    private static final Logger log = Logger.getLogger(IntegresqlOrmCacheReset.class);
+
+    private final Instance<SessionFactory> sessionFactory;
+
+    @Inject
+    public IntegresqlOrmCacheReset(Instance<SessionFactory> sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    void onLeaseSwitched(@Observes LeaseSwitched event) {
+        if (sessionFactory.isResolvable()) {
+            log.debugf("Lease switched to %s, evicting second-level caches", event.current().orElse(null));
+            sessionFactory.get().getCache().evictAllRegions();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package at.allaboutapps.quarkus.integresql.runtime.orm;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseDataSources;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantConnectionResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import java.util.Optional;
+
+/**
+ * Connects the default persistence unit to the leased databases resolved by
+ * {@link IntegresqlTenantResolver}, using the
+ * {@linkplain LeaseDataSources#transactionalDataSource(String) transactional
+ * pools} of {@link LeaseDataSources}, so sessions join the current JTA
+ * transaction like they do on the default datasource.
+ * <p>
+ * The session factory and its metadata are built once and shared by all
+ * leased databases. Schema management only ever runs against the default
+ * datasource at startup, never against a leased database; their schema is
+ * guaranteed by the template. The extension turns it off by default.
+ * <p>
+ * While a {@link LeaseMode#ROLLBACK} lease is current, sessions use the
+ * connection running its transaction, so everything written through the
+ * persistence unit is rolled back with the lease. Sessions asking for a
+ * rollback database while its lease is not current fail, as their changes
+ * would not be rolled back.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class IntegresqlTenantConnectionResolver implements TenantConnectionResolver {
+
+    private final IntegresqlLeases leases;
+    private final LeaseDataSources dataSources;
+    private final Instance<AgroalDataSource> defaultDataSource;
+
+    @Inject
+    public IntegresqlTenantConnectionResolver(IntegresqlLeases leases, LeaseDataSources dataSources,
+            Instance<AgroalDataSource> defaultDataSource) {
+        this.leases = leases;
+        this.dataSources = dataSources;
+        this.defaultDataSource = defaultDataSource;
+    }
+
+    @Override
+    public ConnectionProvider resolve(String tenantId) {
+        if (IntegresqlTenantResolver.DEFAULT_TENANT.equals(tenantId)) {
+            return new LeaseConnectionProvider(() -> defaultDataSource.get().getConnection());
+        }
+        // Hibernate keeps the provider per tenant while the pool behind it is
+        // evicted whenever the database is recreated, so look it up per call.
+        return new LeaseConnectionProvider(() -> {
+            Optional<IntegresqlLease> lease = leases.current()
+                    .filter(current -> current.mode() == LeaseMode.ROLLBACK)
+                    .filter(current -> current.databaseName().equals(tenantId));
+            if (lease.isPresent()) {
+                return lease.get().connection();
+            }
+            if (leases.isRollbackDatabase(tenantId)) {
+                throw new IllegalStateException("Leased database " + tenantId
+                        + " is shared by rollback leases and can only be used while its lease is current");
+            }
+            return dataSources.transactionalDataSource(tenantId)
+                    .orElseThrow(() -> new IllegalStateException("No leased database " + tenantId))
+                    .getConnection();
+        });
+    }
+}
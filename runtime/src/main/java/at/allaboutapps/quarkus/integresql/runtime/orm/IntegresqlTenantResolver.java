@@ -0,0 +1,40 @@
+package at.allaboutapps.quarkus.integresql.runtime.orm;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Resolves the tenant of the default persistence unit to the database of the
+ * current {@link IntegresqlLease}, or to the default datasource if no lease is
+ * activated.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class IntegresqlTenantResolver implements TenantResolver {
+
+    /** Tenant of the regular (non-leased) datasource. */
+    public static final String DEFAULT_TENANT = "integresql-default";
+
+    private final IntegresqlLeases leases;
+
+    @Inject
+    public IntegresqlTenantResolver(IntegresqlLeases leases) {
+        this.leases = leases;
+    }
+
+    @Override
+    public String getDefaultTenantId() {
+        return DEFAULT_TENANT;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        return leases.current()
+                .map(IntegresqlLease::databaseName)
+                .orElse(DEFAULT_TENANT);
+    }
+}
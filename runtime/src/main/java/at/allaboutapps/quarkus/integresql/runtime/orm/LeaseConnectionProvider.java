@@ -0,0 +1,54 @@
+package at.allaboutapps.quarkus.integresql.runtime.orm;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hibernate connection provider obtaining connections through a callback, so
+ * the data source behind it is looked up on every call.
+ */
+class LeaseConnectionProvider implements ConnectionProvider {
+
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    private final ConnectionSource connections;
+
+    LeaseConnectionProvider(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connections.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || LeaseConnectionProvider.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (!isUnwrappableAs(unwrapType)) {
+            throw new IllegalArgumentException("Cannot unwrap to " + unwrapType);
+        }
+        return (T) this;
+    }
+}
@@ -0,0 +1,60 @@
+package at.allaboutapps.quarkus.integresql.runtime.orm;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseDataSources;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.LeasePoolWarmup;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Opens connections of the {@linkplain LeaseDataSources#transactionalDataSource(String)
+ * transactional pool} Hibernate ORM sessions use, while a lease warms up.
+ * Sessions of {@link LeaseMode#ROLLBACK} leases use the connection of the
+ * lease instead, their pool is left alone.
+ */
+@ApplicationScoped
+public class TransactionalPoolWarmup implements LeasePoolWarmup {
+
+    private final LeaseDataSources dataSources;
+
+    @Inject
+    public TransactionalPoolWarmup(LeaseDataSources dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public CompletionStage<Void> warmUp(IntegresqlLease lease, int connections) {
+        Optional<AgroalDataSource> dataSource = dataSources.transactionalDataSource(lease.databaseName());
+        if (lease.mode() == LeaseMode.ROLLBACK || dataSource.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Connection> opened = new ArrayList<>(connections);
+        try {
+            // Hold all connections at once, so the pool actually opens that many
+            for (int i = 0; i < connections; i++) {
+                opened.add(dataSource.get().getConnection());
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // Back in the pool or broken either way
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package at.allaboutapps.quarkus.integresql.runtime.reactive;
+
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies the reactive {@link io.vertx.sqlclient.Pool} bean that follows
+ * the current lease, see {@link LeasePools}.
+ *
+ * <pre>
+ * &#64;Inject
+ * &#64;IntegresqlPool
+ * Pool pool;
+ * </pre>
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE })
+public @interface IntegresqlPool {
+}
@@ -0,0 +1,23 @@
+package at.allaboutapps.quarkus.integresql.runtime.reactive;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.runtime.annotations.Recorder;
+import io.vertx.sqlclient.Pool;
+
+import java.util.function.Supplier;
+
+/**
+ * Recorder creating the reactive pool bean that follows the current lease.
+ * Kept apart from the main recorder, as it is only used if the reactive
+ * PostgreSQL client is present.
+ */
+@Recorder
+public class IntegresqlReactiveRecorder {
+
+    /**
+     * @return a Supplier for the {@link IntegresqlPool} bean
+     */
+    public Supplier<Pool> followingPool() {
+        return () -> Arc.container().instance(LeasePools.class).get().followingPool();
+    }
+}
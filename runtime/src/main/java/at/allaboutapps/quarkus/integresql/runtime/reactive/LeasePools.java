@@ -0,0 +1,239 @@
+package at.allaboutapps.quarkus.integresql.runtime.reactive;
+
+import at.allaboutapps.integresql.client.dto.DatabaseConfig;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLeases;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseDataSources;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import at.allaboutapps.quarkus.integresql.runtime.config.ReactiveConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactive PostgreSQL pools for leased test databases, keyed by database name.
+ * <p>
+ * Like {@link LeaseDataSources}, pools of databases returned to IntegreSQL
+ * stay open for the next lease of the same database, so switching between
+ * the handful of databases IntegreSQL hands out does not reconnect every
+ * time. At most {@code quarkus.integresql.reactive.max-pools} pools are kept;
+ * pools unused for {@code quarkus.integresql.reactive.pool-idle-timeout} are
+ * closed, as are pools of databases about to be dropped, along with the
+ * {@linkplain LeaseDataSources#evict(String) eviction} of their Agroal
+ * pools. A pool whose lease is still open
+ * is never closed to make room or for being idle, so the limit may be
+ * exceeded while more leases are open. Idle connections within a pool are
+ * closed after {@code quarkus.integresql.reactive.connection-idle-timeout}.
+ * <p>
+ * The {@link IntegresqlPool} bean is a {@link #followingPool() view} routing
+ * every call to the pool of the current lease. Pools connect to the leased
+ * database directly, outside the transaction of a
+ * {@link LeaseMode#ROLLBACK} lease, so they are refused for those leases.
+ */
+@ApplicationScoped
+public class LeasePools {
+
+    private static final Logger log = Logger.getLogger(LeasePools.class);
+
+    private final IntegresqlLeases leases;
+    private final LeaseDataSources dataSources;
+    private final Vertx vertx;
+    private final ReactiveConfig config;
+    private final Map<String, CachedPool> pools = new ConcurrentHashMap<>();
+    private long evictionTimer = -1;
+
+    @Inject
+    public LeasePools(IntegresqlLeases leases, LeaseDataSources dataSources, Vertx vertx,
+            IntegresqlRuntimeConfig config) {
+        this.leases = leases;
+        this.dataSources = dataSources;
+        this.vertx = vertx;
+        this.config = config.reactive();
+    }
+
+    @PostConstruct
+    void init() {
+        dataSources.addEvictionListener(this::evict);
+        long interval = Math.max(1000, config.poolIdleTimeout().toMillis() / 2);
+        evictionTimer = vertx.setPeriodic(interval, id -> evictIdle());
+    }
+
+    /**
+     * @return the pool for the database of the given lease, created on first
+     *         use
+     * @throws IllegalStateException for {@link LeaseMode#ROLLBACK} leases,
+     *                               whose changes would not be rolled back
+     */
+    public Pool pool(IntegresqlLease lease) {
+        if (lease.mode() == LeaseMode.ROLLBACK) {
+            throw new IllegalStateException("Reactive pools bypass the transaction of rollback lease " + lease);
+        }
+        CachedPool cached = pools.compute(lease.databaseName(), (name, existing) -> {
+            CachedPool used = existing != null ? existing : new CachedPool(create(lease.config()));
+            used.lease = lease;
+            used.lastUsed = System.nanoTime();
+            return used;
+        });
+        if (pools.size() > config.maxPools()) {
+            evictLeastRecentlyUsed(lease.databaseName());
+        }
+        return cached.pool;
+    }
+
+    /**
+     * @return a pool routing every call to the pool of the current lease;
+     *         closing it has no effect
+     * @throws IllegalStateException on use while no lease is activated
+     */
+    public Pool followingPool() {
+        return (Pool) Proxy.newProxyInstance(
+                LeasePools.class.getClassLoader(),
+                new Class<?>[] { Pool.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (args != null && args.length == 1) {
+                                @SuppressWarnings("unchecked")
+                                Handler<Object> handler = (Handler<Object>) args[0];
+                                handler.handle(Future.succeededFuture());
+                                return null;
+                            }
+                            return Future.succeededFuture();
+                        case "toString":
+                            return "IntegresqlPool[" + leases.current().map(Object::toString).orElse("no lease") + "]";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            break;
+                    }
+                    IntegresqlLease lease = leases.current()
+                            .orElseThrow(() -> new IllegalStateException("No IntegreSQL lease is activated"));
+                    try {
+                        return method.invoke(pool(lease), args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Closes the pool of the given database, if any, without waiting for it.
+     *
+     * @return completed once the pool is closed
+     */
+    public CompletionStage<Void> evict(String databaseName) {
+        CachedPool cached = pools.remove(databaseName);
+        if (cached == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        log.debugf("Closing reactive pool for leased database %s", databaseName);
+        return cached.pool.close().toCompletionStage();
+    }
+
+    private Pool create(DatabaseConfig databaseConfig) {
+        log.debugf("Creating reactive pool for leased database %s", databaseConfig.database);
+        PgConnectOptions connectOptions = new PgConnectOptions()
+                .setHost(databaseConfig.host)
+                .setPort(databaseConfig.port)
+                .setDatabase(databaseConfig.database)
+                .setUser(databaseConfig.username)
+                .setPassword(databaseConfig.password);
+        PoolOptions poolOptions = new PoolOptions()
+                .setMaxSize(config.maxSize())
+                .setIdleTimeout((int) config.connectionIdleTimeout().toMillis())
+                .setIdleTimeoutUnit(TimeUnit.MILLISECONDS);
+        return PgBuilder.pool()
+                .with(poolOptions)
+                .connectingTo(connectOptions)
+                .using(vertx)
+                .build();
+    }
+
+    private void evictLeastRecentlyUsed(String keep) {
+        pools.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(keep))
+                .filter(entry -> !entry.getValue().inUse())
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                .ifPresent(entry -> closeIfUnused(entry.getKey()));
+    }
+
+    private void evictIdle() {
+        long idleBefore = System.nanoTime() - config.poolIdleTimeout().toNanos();
+        pools.forEach((name, cached) -> {
+            if (cached.lastUsed < idleBefore) {
+                closeIfUnused(name);
+            }
+        });
+    }
+
+    /**
+     * Closes the pool of the given database unless its lease is still open.
+     * Checked and removed atomically, so a pool picked up by a new lease in
+     * the meantime stays open.
+     */
+    private void closeIfUnused(String databaseName) {
+        CachedPool[] removed = new CachedPool[1];
+        pools.computeIfPresent(databaseName, (name, cached) -> {
+            if (cached.inUse()) {
+                return cached;
+            }
+            removed[0] = cached;
+            return null;
+        });
+        if (removed[0] != null) {
+            log.debugf("Closing unused reactive pool for leased database %s", databaseName);
+            removed[0].pool.close();
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        vertx.cancelTimer(evictionTimer);
+        pools.keySet().forEach(name -> {
+            CachedPool cached = pools.remove(name);
+            if (cached != null) {
+                cached.pool.close();
+            }
+        });
+    }
+
+    private static final class CachedPool {
+
+        private final Pool pool;
+        private volatile IntegresqlLease lease;
+        private volatile long lastUsed;
+
+        CachedPool(Pool pool) {
+            this.pool = pool;
+        }
+
+        /**
+         * @return whether the lease that last used the pool is still open
+         */
+        boolean inUse() {
+            IntegresqlLease current = lease;
+            return current != null && !current.isClosed();
+        }
+    }
+}
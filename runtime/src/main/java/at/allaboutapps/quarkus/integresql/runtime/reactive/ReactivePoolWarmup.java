@@ -0,0 +1,56 @@
+package at.allaboutapps.quarkus.integresql.runtime.reactive;
+
+import at.allaboutapps.quarkus.integresql.runtime.IntegresqlLease;
+import at.allaboutapps.quarkus.integresql.runtime.LeaseMode;
+import at.allaboutapps.quarkus.integresql.runtime.LeasePoolWarmup;
+import at.allaboutapps.quarkus.integresql.runtime.config.IntegresqlRuntimeConfig;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Opens connections of the reactive pool of a lease in {@link LeasePools},
+ * while the lease warms up. {@link LeaseMode#ROLLBACK} leases have no
+ * reactive pool.
+ */
+@ApplicationScoped
+public class ReactivePoolWarmup implements LeasePoolWarmup {
+
+    private final LeasePools leasePools;
+    private final int maxSize;
+
+    @Inject
+    public ReactivePoolWarmup(LeasePools leasePools, IntegresqlRuntimeConfig config) {
+        this.leasePools = leasePools;
+        this.maxSize = config.reactive().maxSize();
+    }
+
+    @Override
+    public CompletionStage<Void> warmUp(IntegresqlLease lease, int connections) {
+        if (lease.mode() == LeaseMode.ROLLBACK) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Pool pool = leasePools.pool(lease);
+        // Hold all connections at once, so the pool actually opens that many
+        List<Future<SqlConnection>> opened = new ArrayList<>();
+        for (int i = 0; i < Math.min(connections, maxSize); i++) {
+            opened.add(pool.getConnection());
+        }
+        return Future.join(opened)
+                .eventually(() -> {
+                    opened.stream()
+                            .filter(Future::succeeded)
+                            .forEach(connection -> connection.result().close());
+                    return Future.succeededFuture();
+                })
+                .<Void>mapEmpty()
+                .toCompletionStage();
+    }
+}